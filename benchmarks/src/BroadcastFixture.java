@@ -0,0 +1,104 @@
+import bench.BroadcastWorkload;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class BroadcastFixture implements BroadcastWorkload {
+    private static final long TIMEOUT_MILLIS = 10000;
+    private ConnectionServer server;
+    private Broadcaster broadcaster;
+    private List<Player> players;
+    private List<Socket> clients;
+    private List<String> categories;
+
+    @Override
+    public void setUp(int numClients, boolean binary) throws Exception {
+        broadcaster = new Broadcaster(TIMEOUT_MILLIS, new Metrics());
+        players = new CopyOnWriteArrayList<>();
+        clients = new ArrayList<>();
+        categories = CategoryPool.fromResource("categories.txt").sample(Room.NUM_CATEGORIES, new Random(42));
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        server = new ConnectionServer(new InetSocketAddress(loopback, 0),
+            (connection, line) -> players.add(new Player(connection, Handshake.parse(line))));
+        server.start();
+        String features = binary ? "binary,pipeline" : "pipeline";
+        for(int i = 0; i < numClients; i++) {
+            Socket socket = new Socket(loopback, server.getPort());
+            socket.setTcpNoDelay(true);
+            clients.add(socket);
+            OutputStream out = socket.getOutputStream();
+            out.write(("hello " + features + " - bot" + i + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            Thread bot = new Thread(() -> acknowledge(socket, binary), "bot-" + i);
+            bot.setDaemon(true);
+            bot.start();
+        }
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while(players.size() < numClients) {
+            if(System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Only " + players.size() + " of " + numClients + " bots connected");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static void acknowledge(Socket socket, boolean binary) {
+        try {
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            if(binary) {
+                DataInputStream data = new DataInputStream(input);
+                while(true) {
+                    data.readByte();
+                    byte type = data.readByte();
+                    int length = data.readInt();
+                    if(type == BinaryProtocol.ANSWERS || type == BinaryProtocol.PONG) {
+                        data.skipBytes(length);
+                        continue;
+                    }
+                    int seq = data.readInt();
+                    data.skipBytes(length - 4);
+                    out.write(("ack " + seq + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            } else {
+                BufferedReader in = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+                String line;
+                while((line = in.readLine()) != null) {
+                    int query = line.indexOf("? ");
+                    if(query >= 0) {
+                        out.write(("ack " + line.substring(query + 2) + "\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        } catch(IOException e) {
+            // The socket was closed by tearDown.
+        }
+    }
+
+    @Override
+    public int broadcastCategories() throws Exception {
+        return broadcaster.broadcastAsync(players, player -> player.sendCategories(0, categories)).get().size();
+    }
+
+    @Override
+    public int broadcastLetter() throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        return broadcaster.broadcastAsync(players, player -> player.sendLetter('S', deadline)).get().size();
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        for(Socket client : clients) {
+            client.close();
+        }
+        server.close();
+        broadcaster.shutdown();
+    }
+}
@@ -0,0 +1,79 @@
+import bench.ProtocolWorkload;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+public class ProtocolFixture implements ProtocolWorkload {
+    private static final String HANDSHAKE = "hello binary,pipeline,stream,clock,resume ROOM Player";
+    private Protocol protocol;
+    private boolean binary;
+    private List<String> categories;
+    private byte[] encoded;
+
+    @Override
+    public void setUp(boolean binary, int numCategories) {
+        this.binary = binary;
+        protocol = Handshake.parse(binary ? HANDSHAKE : "Player").getProtocol();
+        try {
+            categories = CategoryPool.fromResource("categories.txt").sample(numCategories, new Random(42));
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer message = encodeCategories();
+        encoded = new byte[message.remaining()];
+        message.get(encoded);
+    }
+
+    @Override
+    public ByteBuffer encodeCategories() {
+        return protocol.categories(7, 1, Room.NUM_ROUNDS, Room.ROUND_SECONDS, categories);
+    }
+
+    @Override
+    public ByteBuffer encodeLetter() {
+        return protocol.letter(8, 'S', 1234567890123L);
+    }
+
+    @Override
+    public int decodeCategories() throws IOException {
+        return binary ? decodeFrame() : decodeLines();
+    }
+
+    private int decodeFrame() throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(encoded));
+        data.readByte();
+        data.readByte();
+        data.readInt();
+        int seq = data.readInt();
+        data.readByte();
+        data.readByte();
+        data.readShort();
+        int numCategories = data.readShort();
+        int length = 0;
+        for(int i = 0; i < numCategories; i++) {
+            length += data.readUTF().length();
+        }
+        return seq + length;
+    }
+
+    private int decodeLines() throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(encoded),
+            StandardCharsets.UTF_8));
+        in.readLine();
+        int numCategories = Integer.parseInt(in.readLine());
+        int length = 0;
+        for(int i = 0; i < numCategories; i++) {
+            length += in.readLine().length();
+        }
+        String request = in.readLine();
+        return Integer.parseInt(request.substring(request.indexOf(' ') + 1)) + length;
+    }
+
+    @Override
+    public Object decodeHandshake() {
+        return Handshake.parse(HANDSHAKE);
+    }
+}
@@ -0,0 +1,40 @@
+import bench.SamplingWorkload;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class SamplingFixture implements SamplingWorkload {
+    private Path file;
+    private RoundScheduler.Deck deck;
+
+    @Override
+    public void setUp(int packSize) throws IOException {
+        file = Files.createTempFile("categories", ".txt");
+        try(BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for(int i = 0; i < packSize; i++) {
+                out.write("Category " + i);
+                out.newLine();
+            }
+        }
+        deck = new RoundScheduler(CategoryPool.fromFile(file), 42).deal("BENCH");
+    }
+
+    @Override
+    public List<String> nextCategories() {
+        return deck.nextCategories(Room.NUM_CATEGORIES);
+    }
+
+    @Override
+    public char nextLetter() {
+        return deck.nextLetter();
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,111 @@
+import bench.ScoringWorkload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ScoringFixture implements ScoringWorkload {
+    private static final char LETTER = 'S';
+    private Validator validator;
+    private DuplicateDetector detector;
+    private List<String> categories;
+    private List<Player> players;
+    private List<List<String>> normalised;
+
+    @Override
+    public void setUp(int numPlayers, boolean fuzzy) {
+        Random random = new Random(42);
+        validator = ValidationPipeline.standard().add(new RulingCache(RulingCache.DEFAULT_CAPACITY));
+        detector = new DuplicateDetector(fuzzy);
+        try {
+            categories = CategoryPool.fromResource("categories.txt").sample(Room.NUM_CATEGORIES, random);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String[][] answers = new String[numPlayers][categories.size()];
+        normalised = new ArrayList<>();
+        for(int c = 0; c < categories.size(); c++) {
+            String[] earlier = new String[numPlayers];
+            List<String> category = new ArrayList<>(numPlayers);
+            for(int p = 0; p < numPlayers; p++) {
+                earlier[p] = answer(random, earlier, p);
+                answers[p][c] = earlier[p];
+                category.add(AnswerNormaliser.normalise(earlier[p]));
+            }
+            normalised.add(category);
+        }
+        players = new ArrayList<>(numPlayers);
+        for(int p = 0; p < numPlayers; p++) {
+            Player player = new Player(Handshake.parse("hello - BENCH bot" + p), null, 0, 0, answers[p]);
+            player.freezeAnswers();
+            players.add(player);
+        }
+    }
+
+    private static String answer(Random random, String[] earlier, int player) {
+        int kind = random.nextInt(10);
+        if(kind == 0) {
+            return "";
+        }
+        if(player > 0 && kind <= 2) {
+            return earlier[random.nextInt(player)];
+        }
+        if(player > 0 && kind == 3) {
+            char[] near = earlier[random.nextInt(player)].toCharArray();
+            if(near.length > 1) {
+                near[1 + random.nextInt(near.length - 1)] = (char)('a' + random.nextInt(26));
+            }
+            return new String(near);
+        }
+        StringBuilder answer = new StringBuilder();
+        answer.append(kind == 4 ? (char)('A' + random.nextInt(26)) : LETTER);
+        int length = 3 + random.nextInt(8);
+        for(int i = 0; i < length; i++) {
+            answer.append((char)('a' + random.nextInt(26)));
+        }
+        return answer.toString();
+    }
+
+    @Override
+    public int validate() {
+        ScoreSheet sheet = new ScoreSheet(players, categories, LETTER);
+        sheet.validate(validator);
+        return countAccepted(sheet);
+    }
+
+    @Override
+    public int findDuplicates() {
+        int duplicates = 0;
+        for(List<String> category : normalised) {
+            for(boolean duplicate : detector.findDuplicates(category)) {
+                if(duplicate) {
+                    duplicates++;
+                }
+            }
+        }
+        return duplicates;
+    }
+
+    @Override
+    public int scoreRound() {
+        ScoreSheet sheet = new ScoreSheet(players, categories, LETTER);
+        sheet.validate(validator);
+        sheet.markDuplicates(detector);
+        sheet.acceptUnreviewed();
+        return countAccepted(sheet);
+    }
+
+    private static int countAccepted(ScoreSheet sheet) {
+        int accepted = 0;
+        for(int c = 0; c < sheet.getCategories().size(); c++) {
+            for(int p = 0; p < sheet.getPlayers().size(); p++) {
+                if(sheet.isAccepted(c, p)) {
+                    accepted++;
+                }
+            }
+        }
+        return accepted;
+    }
+}
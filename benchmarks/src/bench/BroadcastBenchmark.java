@@ -0,0 +1,42 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BroadcastBenchmark {
+    @Param({"8", "64"})
+    public int numClients;
+
+    @Param({"text", "binary"})
+    public String protocol;
+
+    private BroadcastWorkload workload;
+
+    @Setup
+    public void setUp() throws Exception {
+        workload = Fixtures.load("BroadcastFixture", BroadcastWorkload.class);
+        workload.setUp(numClients, "binary".equals(protocol));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        workload.tearDown();
+    }
+
+    @Benchmark
+    public int broadcastCategories() throws Exception {
+        return workload.broadcastCategories();
+    }
+
+    @Benchmark
+    public int broadcastLetter() throws Exception {
+        return workload.broadcastLetter();
+    }
+}
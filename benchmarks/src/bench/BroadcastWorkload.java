@@ -0,0 +1,11 @@
+package bench;
+
+public interface BroadcastWorkload {
+    void setUp(int numClients, boolean binary) throws Exception;
+
+    int broadcastCategories() throws Exception;
+
+    int broadcastLetter() throws Exception;
+
+    void tearDown() throws Exception;
+}
@@ -0,0 +1,11 @@
+package bench;
+
+// JMH refuses benchmarks in the default package, but the server classes live there and can't be imported
+// from a named one. The benchmarks therefore drive default-package fixtures through these interfaces.
+final class Fixtures {
+    private Fixtures() {}
+
+    static <T> T load(String className, Class<T> type) throws ReflectiveOperationException {
+        return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+    }
+}
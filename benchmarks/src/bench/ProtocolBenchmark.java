@@ -0,0 +1,48 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProtocolBenchmark {
+    @Param({"text", "binary"})
+    public String protocol;
+
+    @Param({"12"})
+    public int numCategories;
+
+    private ProtocolWorkload workload;
+
+    @Setup
+    public void setUp() throws Exception {
+        workload = Fixtures.load("ProtocolFixture", ProtocolWorkload.class);
+        workload.setUp("binary".equals(protocol), numCategories);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeCategories() {
+        return workload.encodeCategories();
+    }
+
+    @Benchmark
+    public ByteBuffer encodeLetter() {
+        return workload.encodeLetter();
+    }
+
+    @Benchmark
+    public int decodeCategories() throws Exception {
+        return workload.decodeCategories();
+    }
+
+    @Benchmark
+    public Object decodeHandshake() {
+        return workload.decodeHandshake();
+    }
+}
@@ -0,0 +1,15 @@
+package bench;
+
+import java.nio.ByteBuffer;
+
+public interface ProtocolWorkload {
+    void setUp(boolean binary, int numCategories);
+
+    ByteBuffer encodeCategories();
+
+    ByteBuffer encodeLetter();
+
+    int decodeCategories() throws Exception;
+
+    Object decodeHandshake();
+}
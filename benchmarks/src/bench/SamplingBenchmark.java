@@ -0,0 +1,40 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SamplingBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int packSize;
+
+    private SamplingWorkload workload;
+
+    @Setup
+    public void setUp() throws Exception {
+        workload = Fixtures.load("SamplingFixture", SamplingWorkload.class);
+        workload.setUp(packSize);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        workload.tearDown();
+    }
+
+    @Benchmark
+    public List<String> nextCategories() {
+        return workload.nextCategories();
+    }
+
+    @Benchmark
+    public char nextLetter() {
+        return workload.nextLetter();
+    }
+}
@@ -0,0 +1,13 @@
+package bench;
+
+import java.util.List;
+
+public interface SamplingWorkload {
+    void setUp(int packSize) throws Exception;
+
+    List<String> nextCategories();
+
+    char nextLetter();
+
+    void tearDown() throws Exception;
+}
@@ -0,0 +1,42 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScoringBenchmark {
+    @Param({"8", "100", "1000"})
+    public int numPlayers;
+
+    @Param({"false", "true"})
+    public boolean fuzzy;
+
+    private ScoringWorkload workload;
+
+    @Setup
+    public void setUp() throws Exception {
+        workload = Fixtures.load("ScoringFixture", ScoringWorkload.class);
+        workload.setUp(numPlayers, fuzzy);
+    }
+
+    @Benchmark
+    public int validate() {
+        return workload.validate();
+    }
+
+    @Benchmark
+    public int findDuplicates() {
+        return workload.findDuplicates();
+    }
+
+    @Benchmark
+    public int scoreRound() {
+        return workload.scoreRound();
+    }
+}
@@ -0,0 +1,11 @@
+package bench;
+
+public interface ScoringWorkload {
+    void setUp(int numPlayers, boolean fuzzy);
+
+    int validate();
+
+    int findDuplicates();
+
+    int scoreRound();
+}
@@ -1,3 +1,6 @@
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
@@ -10,23 +13,63 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.stage.Popup;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.*;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class Main extends Application {
+    private static final String FEATURES = "binary,pipeline,stream,clock,resume";
+    private static final int PORT = 4444;
+    private static final long DRAFT_DEBOUNCE_MILLIS = 300;
+    private static final int PING_BURST = 5;
+    private static final long PING_BURST_MILLIS = 200;
+    private static final long PING_INTERVAL_MILLIS = 30000;
+    private static final int SERVER_TIMEOUT_MILLIS = 30000;
+    private static final int MAX_RECONNECT_ATTEMPTS = 6;
+    private static final long RECONNECT_BACKOFF_MILLIS = 500;
+    private static final long MAX_RECONNECT_BACKOFF_MILLIS = 16000;
+    private static final byte QUERY_FRAME = 1;
+    private static final byte CATEGORIES_FRAME = 2;
+    private static final byte LETTER_FRAME = 3;
+    private static final byte ANSWERS_FRAME = 4;
+    private static final byte PONG_FRAME = 5;
+    private static final byte RESUME_FRAME = 6;
     private Socket socket;
     private PrintWriter out;
     private BufferedReader in;
+    private volatile String sessionToken;
+    private int reconnectAttempts;
+    private boolean pinging;
     private List<String> categories;
+    private int roundNum;
+    private int numRounds;
     private char letter;
     private Label letterLabel;
+    private Label timeLabel;
+    private Timeline timeline;
+    private volatile long deadline;
+    private long bestRoundTrip = Long.MAX_VALUE;
+    private volatile long clockOffset;
     private List<TextField> answerFields;
+    private boolean streaming;
+    private int frameVersion;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "client");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?>[] pendingDrafts;
+    private String[] sentDrafts;
     private Stage stage;
 
     @Override
@@ -35,13 +78,17 @@ public class Main extends Application {
 
         Label hostLabel = new Label("Host:");
         Label nameLabel = new Label("Name:");
+        Label roomLabel = new Label("Room:");
         TextField hostField = new TextField();
         TextField nameField = new TextField();
+        TextField roomField = new TextField();
+        roomField.setPromptText("optional");
         Button connectButton = new Button("Connect");
         connectButton.setDefaultButton(true);
         connectButton.setOnAction(event -> {
             String name = nameField.getText();
             String host = hostField.getText();
+            String room = roomField.getText().trim();
             if(host.isEmpty()) {
                 showPopupMessage("No host entered", primaryStage);
                 return;
@@ -50,20 +97,18 @@ public class Main extends Application {
                 showPopupMessage("No name entered", primaryStage);
                 return;
             }
+            if(room.contains(" ")) {
+                showPopupMessage("Room codes can't contain spaces", primaryStage);
+                return;
+            }
             try {
-                socket = new Socket(host, 4444);
-                out = new PrintWriter(socket.getOutputStream(), true);
-                in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                out.println(name);
+                InputStream input = connect(host, "hello " + FEATURES + " " + (room.isEmpty() ? "-" : room) + " " + name);
                 connectButton.setDisable(true);
                 System.out.println("Connected");
                 new Thread(new Task<Void>() {
                     @Override
                     protected Void call() throws Exception {
-                        String line;
-                        while((line = in.readLine()) != null) {
-                            handleServerMessage(line);
-                        }
+                        runSession(host, input);
                         return null;
                     }
                 }).start();
@@ -84,7 +129,9 @@ public class Main extends Application {
         initialPane.add(hostField, 1, 0);
         initialPane.add(nameLabel, 0, 1);
         initialPane.add(nameField, 1, 1);
-        initialPane.add(buttonBox, 0, 2, 2, 1);
+        initialPane.add(roomLabel, 0, 2);
+        initialPane.add(roomField, 1, 2);
+        initialPane.add(buttonBox, 0, 3, 2, 1);
 
         primaryStage.setTitle("Scattergories");
         primaryStage.setScene(new Scene(initialPane, 350, 250));
@@ -95,17 +142,191 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    private InputStream connect(String host, String handshake) throws IOException {
+        socket = new Socket(host, PORT);
+        socket.setSoTimeout(SERVER_TIMEOUT_MILLIS);
+        out = new PrintWriter(socket.getOutputStream(), true);
+        out.println(handshake);
+        return new BufferedInputStream(socket.getInputStream());
+    }
+
+    private void runSession(String host, InputStream input) throws InterruptedException {
+        while(true) {
+            if(input != null) {
+                try {
+                    readMessages(input);
+                } catch(SocketTimeoutException e) {
+                    System.out.println("Lost contact with the server");
+                } catch(IOException e) {
+                    System.out.println("Connection lost: " + e.getMessage());
+                }
+                closeSocket();
+            }
+            if(sessionToken == null || reconnectAttempts >= MAX_RECONNECT_ATTEMPTS) {
+                System.out.println("Disconnected");
+                return;
+            }
+            Thread.sleep(Math.min(RECONNECT_BACKOFF_MILLIS << reconnectAttempts, MAX_RECONNECT_BACKOFF_MILLIS));
+            reconnectAttempts++;
+            try {
+                input = connect(host, "resume " + sessionToken);
+                System.out.println("Reconnecting (attempt " + reconnectAttempts + ")");
+            } catch(IOException e) {
+                input = null;
+                System.out.println("Reconnect failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void readMessages(InputStream input) throws IOException {
+        List<String> features = readFeatures(input);
+        reconnectAttempts = 0;
+        streaming = features.contains("stream");
+        if(features.contains("clock") && !pinging) {
+            pinging = true;
+            startPings();
+        }
+        if(features.contains("binary")) {
+            frameVersion = features.contains("clock") ? 3 : features.contains("pipeline") ? 2 : 1;
+            DataInputStream data = new DataInputStream(input);
+            while(readFrame(data));
+        } else {
+            in = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            while((line = in.readLine()) != null) {
+                handleServerMessage(line);
+            }
+        }
+    }
+
+    private List<String> readFeatures(InputStream input) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while((b = input.read()) != '\n') {
+            if(b < 0) {
+                throw new EOFException("Server closed the connection during the handshake");
+            }
+            line.write(b);
+        }
+        String[] parts = new String(line.toByteArray(), StandardCharsets.UTF_8).trim().split(" ");
+        if(parts.length < 2 || !"hello".equals(parts[0])) {
+            throw new IOException("Unexpected handshake reply " + line);
+        }
+        if(parts.length > 2) {
+            sessionToken = parts[2];
+        }
+        return Arrays.asList(parts[1].split(","));
+    }
+
+    private boolean readFrame(DataInputStream data) throws IOException {
+        int version = data.read();
+        if(version < 0) {
+            return false;
+        }
+        if(version != frameVersion) {
+            throw new IOException("Unsupported frame version " + version);
+        }
+        byte type = data.readByte();
+        int length = data.readInt();
+        switch(type) {
+            case QUERY_FRAME: {
+                int seq = readSeq(data);
+                data.readUTF();
+                acknowledge(seq);
+                break;
+            }
+            case CATEGORIES_FRAME: {
+                int seq = readSeq(data);
+                roundNum = data.readByte();
+                numRounds = data.readByte();
+                data.readShort();
+                int numCategories = data.readShort();
+                List<String> received = new ArrayList<>();
+                for(int i = 0; i < numCategories; i++) {
+                    received.add(data.readUTF());
+                }
+                categories = received;
+                resetDrafts(numCategories);
+                acknowledge(seq);
+                Platform.runLater(this::showCategories);
+                break;
+            }
+            case LETTER_FRAME: {
+                int seq = readSeq(data);
+                letter = data.readChar();
+                deadline = frameVersion >= 3 ? data.readLong() : 0;
+                acknowledge(seq);
+                Platform.runLater(this::showLetter);
+                break;
+            }
+            case ANSWERS_FRAME:
+                sendAnswers();
+                break;
+            case RESUME_FRAME: {
+                int seq = readSeq(data);
+                roundNum = data.readByte();
+                numRounds = data.readByte();
+                char resumedLetter = data.readChar();
+                long resumedDeadline = frameVersion >= 3 ? data.readLong() : 0;
+                int numCategories = data.readShort();
+                List<String> resumedCategories = new ArrayList<>();
+                for(int i = 0; i < numCategories; i++) {
+                    resumedCategories.add(data.readUTF());
+                }
+                List<String> drafts = new ArrayList<>();
+                for(int i = 0; i < numCategories; i++) {
+                    drafts.add(data.readUTF());
+                }
+                resume(resumedCategories, resumedLetter, resumedDeadline, drafts);
+                acknowledge(seq);
+                break;
+            }
+            case PONG_FRAME:
+                handlePong(data.readLong(), data.readLong());
+                break;
+            default:
+                data.skipBytes(length);
+                System.out.println("Unknown frame " + type);
+        }
+        return true;
+    }
+
+    private int readSeq(DataInputStream data) throws IOException {
+        return frameVersion > 1 ? data.readInt() : 0;
+    }
+
+    private void acknowledge(int seq) {
+        out.println(seq == 0 ? "yes" : "ack " + seq);
+    }
+
+    private boolean acknowledge(String request, String query) {
+        if(request == null || !request.startsWith(query + "?")) {
+            return false;
+        }
+        String seq = request.substring(query.length() + 1).trim();
+        acknowledge(seq.isEmpty() ? 0 : Integer.parseInt(seq));
+        return true;
+    }
+
     private void handleServerMessage(String line) {
+        if(acknowledge(line, "alive")) {
+            return;
+        }
+        if(line.startsWith("pong ")) {
+            String[] parts = line.split(" ");
+            handlePong(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            return;
+        }
         switch(line) {
-            case "alive?":
-                out.println("yes");
-                break;
             case "categories":
                 readCategories();
                 break;
             case "letter":
                 readLetter();
                 break;
+            case "resume":
+                readResume();
+                break;
             case "answers":
                 sendAnswers();
                 break;
@@ -118,17 +339,90 @@ public class Main extends Application {
         System.out.println("Sending answers");
         Platform.runLater(() -> answerFields.forEach(field -> field.setDisable(true)));
         System.out.println("Time's up");
-        for(int i = 0; i < categories.size(); i++) {
-            out.println(answerFields.get(i).getText().trim());
+        if(streaming) {
+            for(int i = 0; i < categories.size(); i++) {
+                sendDraft(i, answerFields.get(i).getText());
+            }
+            out.println("commit");
+        } else {
+            for(int i = 0; i < categories.size(); i++) {
+                out.println(answerFields.get(i).getText().trim());
+            }
         }
         System.out.println("Sent");
     }
 
+    private synchronized void resetDrafts(int numCategories) {
+        if(pendingDrafts != null) {
+            for(ScheduledFuture<?> pending : pendingDrafts) {
+                if(pending != null) {
+                    pending.cancel(false);
+                }
+            }
+        }
+        pendingDrafts = new ScheduledFuture<?>[numCategories];
+        sentDrafts = new String[numCategories];
+        Arrays.fill(sentDrafts, "");
+    }
+
+    private void startPings() {
+        for(int i = 1; i < PING_BURST; i++) {
+            scheduler.schedule(this::sendPing, i*PING_BURST_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleAtFixedRate(this::sendPing, 0, PING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void sendPing() {
+        out.println("ping " + System.currentTimeMillis());
+    }
+
+    private synchronized void handlePong(long sent, long serverTime) {
+        long received = System.currentTimeMillis();
+        long roundTrip = received - sent;
+        if(roundTrip <= bestRoundTrip) {
+            bestRoundTrip = roundTrip;
+            clockOffset = serverTime - (sent + received)/2;
+        }
+    }
+
+    private long getRemainingMillis() {
+        return Math.max(0, deadline - (System.currentTimeMillis() + clockOffset));
+    }
+
+    private void updateTimeLabel() {
+        long seconds = (getRemainingMillis() + 999)/1000;
+        timeLabel.setText(String.format("%d:%02d", seconds/60, seconds%60));
+    }
+
+    private synchronized void scheduleDraft(int index, String text) {
+        if(pendingDrafts[index] != null) {
+            pendingDrafts[index].cancel(false);
+        }
+        pendingDrafts[index] = scheduler.schedule(() -> sendDraft(index, text), DRAFT_DEBOUNCE_MILLIS,
+            TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void sendDraft(int index, String text) {
+        if(pendingDrafts[index] != null) {
+            pendingDrafts[index].cancel(false);
+            pendingDrafts[index] = null;
+        }
+        String draft = text.trim();
+        if(!draft.equals(sentDrafts[index])) {
+            out.println("draft " + index + " " + draft);
+            sentDrafts[index] = draft;
+        }
+    }
+
     private void readLetter() {
         try {
             letter = in.readLine().charAt(0);
-            if("received?".equals(in.readLine())) {
-                out.println("yes");
+            String request = in.readLine();
+            if(request != null && request.startsWith("deadline ")) {
+                deadline = Long.parseLong(request.substring(9).trim());
+                request = in.readLine();
+            }
+            if(acknowledge(request, "received")) {
                 Platform.runLater(this::showLetter);
             } else {
                 System.out.println("Didn't get server request for read receipt");
@@ -138,6 +432,52 @@ public class Main extends Application {
         }
     }
 
+    private void readResume() {
+        try {
+            String[] round = in.readLine().split(" ");
+            roundNum = Integer.parseInt(round[0]);
+            numRounds = Integer.parseInt(round[1]);
+            String resumedLetter = in.readLine();
+            long resumedDeadline = Long.parseLong(in.readLine());
+            int numCategories = Integer.parseInt(in.readLine());
+            List<String> resumedCategories = new ArrayList<>();
+            for(int i = 0; i < numCategories; i++) {
+                resumedCategories.add(in.readLine());
+            }
+            List<String> drafts = new ArrayList<>();
+            for(int i = 0; i < numCategories; i++) {
+                drafts.add(in.readLine());
+            }
+            resume(resumedCategories, "-".equals(resumedLetter) ? 0 : resumedLetter.charAt(0), resumedDeadline, drafts);
+            if(!acknowledge(in.readLine(), "received")) {
+                System.out.println("Didn't get server request for read receipt");
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void resume(List<String> resumedCategories, char resumedLetter, long resumedDeadline, List<String> drafts) {
+        categories = resumedCategories;
+        letter = resumedLetter;
+        deadline = resumedDeadline;
+        resetDrafts(categories.size());
+        synchronized(this) {
+            for(int i = 0; i < drafts.size(); i++) {
+                sentDrafts[i] = drafts.get(i);
+            }
+        }
+        Platform.runLater(() -> {
+            showCategories();
+            for(int i = 0; i < drafts.size(); i++) {
+                answerFields.get(i).setText(drafts.get(i));
+            }
+            if(letter != 0) {
+                showLetter();
+            }
+        });
+    }
+
     private void readCategories() {
         try {
             int numCategories = Integer.parseInt(in.readLine());
@@ -145,8 +485,8 @@ public class Main extends Application {
             for(int i = 0; i < numCategories; i++) {
                 categories.add(in.readLine());
             }
-            if("received?".equals(in.readLine())) {
-                out.println("yes");
+            resetDrafts(numCategories);
+            if(acknowledge(in.readLine(), "received")) {
                 Platform.runLater(this::showCategories);
             } else {
                 System.out.println("Didn't get server request for read receipt");
@@ -158,10 +498,23 @@ public class Main extends Application {
 
     private void showLetter() {
         letterLabel.setText("Letter: " + letter);
-        answerFields.forEach(field -> field.setDisable(false));
+        if(deadline == 0 || getRemainingMillis() > 0) {
+            answerFields.forEach(field -> field.setDisable(false));
+        }
+        if(deadline > 0) {
+            updateTimeLabel();
+            timeline = new Timeline();
+            timeline.getKeyFrames().add(new KeyFrame(Duration.millis(200), event -> updateTimeLabel()));
+            timeline.setCycleCount(Animation.INDEFINITE);
+            timeline.play();
+        }
     }
 
     private void showCategories() {
+        if(timeline != null) {
+            timeline.stop();
+            timeline = null;
+        }
         GridPane pane = new GridPane();
         pane.setHgap(10);
         pane.setVgap(10);
@@ -169,15 +522,25 @@ public class Main extends Application {
         letterLabel = new Label("Letter: ?");
         letterLabel.setAlignment(Pos.CENTER);
         letterLabel.setStyle("-fx-font-size: 32px;");
-        pane.add(letterLabel, 0, 0, 2, 1);
+        pane.add(letterLabel, 0, 0);
+        timeLabel = new Label();
+        timeLabel.setStyle("-fx-font-size: 32px;");
+        pane.add(timeLabel, 1, 0);
         answerFields = new ArrayList<>();
         for(int i = 0; i < categories.size(); i++) {
             pane.add(new Label(categories.get(i)), 0, i + 1);
             TextField answerField = new TextField();
             answerField.setDisable(true);
+            if(streaming) {
+                int index = i;
+                answerField.textProperty().addListener((observable, oldText, newText) -> scheduleDraft(index, newText));
+            }
             answerFields.add(answerField);
             pane.add(answerField, 1, i + 1);
         }
+        if(numRounds > 0) {
+            stage.setTitle("Scattergories - Round " + (roundNum + 1) + " of " + numRounds);
+        }
         stage.setScene(new Scene(pane, 600, 700));
     }
 
@@ -0,0 +1,218 @@
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class Bot implements Runnable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 10000;
+    private static final long PING_INTERVAL_MILLIS = 5000;
+    private final LoadTest test;
+    private final String name;
+    private final String room;
+    private final Random random;
+    private Socket socket;
+    private PrintWriter out;
+    private BufferedReader in;
+    private long bestRoundTrip = Long.MAX_VALUE;
+    private volatile long clockOffset;
+    private int numCategories;
+    private char letter;
+    private long deadline;
+    private volatile boolean quitting;
+    private final List<ScheduledFuture<?>> typing;
+
+    public Bot(LoadTest test, String name, String room, long seed) {
+        this.test = test;
+        this.name = name;
+        this.room = room;
+        random = new Random(seed);
+        typing = new ArrayList<>();
+    }
+
+    @Override
+    public void run() {
+        ScheduledFuture<?> pings = null;
+        try {
+            long start = System.nanoTime();
+            socket = new Socket();
+            socket.connect(new InetSocketAddress(test.getHost(), test.getPort()), CONNECT_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out.println("hello " + test.getFeatures() + " " + room + " " + name);
+            String reply = in.readLine();
+            if(reply == null || !reply.startsWith("hello ")) {
+                test.botFailed(name, "bad handshake reply " + reply);
+                return;
+            }
+            test.getHandshakes().record(micros(start));
+            test.botConnected();
+            if(test.getFeatures().contains("clock")) {
+                pings = test.getScheduler().scheduleAtFixedRate(this::ping, random.nextInt((int)PING_INTERVAL_MILLIS),
+                    PING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            String line;
+            while(!quitting && (line = in.readLine()) != null) {
+                handleServerMessage(line);
+            }
+        } catch(IOException e) {
+            if(!quitting) {
+                test.botFailed(name, e.toString());
+            }
+        } finally {
+            if(pings != null) {
+                pings.cancel(false);
+            }
+            stopTyping();
+            close();
+            test.botFinished();
+        }
+    }
+
+    private void handleServerMessage(String line) throws IOException {
+        long arrived = System.nanoTime();
+        if(line.startsWith("alive?")) {
+            acknowledge(line, arrived);
+            return;
+        }
+        if(line.startsWith("pong ")) {
+            String[] parts = line.split(" ");
+            handlePong(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            return;
+        }
+        switch(line) {
+            case "categories":
+                numCategories = Integer.parseInt(readLine());
+                for(int i = 0; i < numCategories; i++) {
+                    readLine();
+                }
+                acknowledge(readLine(), arrived);
+                break;
+            case "letter":
+                long received = System.currentTimeMillis();
+                letter = readLine().charAt(0);
+                String request = readLine();
+                if(request.startsWith("deadline ")) {
+                    deadline = Long.parseLong(request.substring(9).trim());
+                    test.getRoundRemaining().record((deadline - (received + clockOffset))*1000);
+                    request = readLine();
+                }
+                acknowledge(request, arrived);
+                play();
+                break;
+            case "answers":
+                stopTyping();
+                if(deadline > 0) {
+                    test.getCollections().record((System.currentTimeMillis() + clockOffset - deadline)*1000);
+                }
+                if(test.getFeatures().contains("stream")) {
+                    out.println("commit");
+                } else {
+                    for(int i = 0; i < numCategories; i++) {
+                        out.println(answer(letter));
+                    }
+                }
+                break;
+            default:
+                test.botFailed(name, "unknown message " + line);
+        }
+    }
+
+    private String readLine() throws IOException {
+        String line = in.readLine();
+        if(line == null) {
+            throw new EOFException("connection closed mid-message");
+        }
+        return line;
+    }
+
+    private void play() {
+        stopTyping();
+        if(random.nextDouble() < test.getDisconnectRate()) {
+            long quitAfter = random.nextInt((int)Math.max(1, test.getThinkMillis()*numCategories));
+            type(quitAfter, this::quit);
+            return;
+        }
+        if(!test.getFeatures().contains("stream")) {
+            return;
+        }
+        char roundLetter = letter;
+        long delay = 0;
+        for(int i = 0; i < numCategories; i++) {
+            if(test.getThinkMillis() > 0) {
+                delay += test.getThinkMillis()/2 + random.nextInt((int)Math.max(1, test.getThinkMillis()));
+            }
+            int index = i;
+            type(delay, () -> out.println("draft " + index + " " + answer(roundLetter)));
+        }
+    }
+
+    private synchronized void type(long delay, Runnable keystroke) {
+        typing.add(test.getScheduler().schedule(keystroke, delay, TimeUnit.MILLISECONDS));
+    }
+
+    private synchronized void stopTyping() {
+        typing.forEach(future -> future.cancel(false));
+        typing.clear();
+    }
+
+    private void quit() {
+        quitting = true;
+        test.botDisconnected();
+        close();
+    }
+
+    private String answer(char letter) {
+        if(random.nextInt(10) == 0) {
+            return "";
+        }
+        StringBuilder answer = new StringBuilder().append(letter);
+        int length = 3 + random.nextInt(8);
+        for(int i = 0; i < length; i++) {
+            answer.append((char)('a' + random.nextInt(26)));
+        }
+        return answer.toString();
+    }
+
+    private void acknowledge(String request, long arrived) {
+        if(!request.contains("?")) {
+            test.botFailed(name, "expected a read receipt request, got " + request);
+            return;
+        }
+        String seq = request.substring(request.indexOf('?') + 1).trim();
+        out.println(seq.isEmpty() ? "yes" : "ack " + seq);
+        test.getAcks().record((System.nanoTime() - arrived)/1000);
+    }
+
+    private void ping() {
+        out.println("ping " + System.currentTimeMillis());
+    }
+
+    private synchronized void handlePong(long sent, long serverTime) {
+        long received = System.currentTimeMillis();
+        long roundTrip = received - sent;
+        if(roundTrip <= bestRoundTrip) {
+            bestRoundTrip = roundTrip;
+            clockOffset = serverTime - (sent + received)/2;
+        }
+    }
+
+    private void close() {
+        if(socket != null) {
+            try {
+                socket.close();
+            } catch(IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos)/1000;
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.Arrays;
+
+public class LatencyRecorder {
+    private final String name;
+    private long[] samples;
+    private int count;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+        samples = new long[1024];
+    }
+
+    public synchronized void record(long micros) {
+        if(count == samples.length) {
+            samples = Arrays.copyOf(samples, count*2);
+        }
+        samples[count++] = Math.max(0, micros);
+    }
+
+    public synchronized long[] getSamples() {
+        return Arrays.copyOf(samples, count);
+    }
+
+    public synchronized String summary() {
+        if(count == 0) {
+            return String.format("%-12s no samples", name);
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return String.format("%-12s n=%-8d p50=%8.2fms p90=%8.2fms p99=%8.2fms max=%8.2fms", name, count,
+            percentile(sorted, 0.50)/1000.0, percentile(sorted, 0.90)/1000.0, percentile(sorted, 0.99)/1000.0,
+            sorted[sorted.length - 1]/1000.0);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int)Math.ceil(fraction*sorted.length) - 1)];
+    }
+}
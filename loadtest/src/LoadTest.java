@@ -0,0 +1,187 @@
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoadTest {
+    private static final int DEFAULT_PORT = 4444;
+    private static final int DEFAULT_BOTS = 100;
+    private static final int DEFAULT_ROOM_SIZE = 10;
+    private static final long DEFAULT_THINK_MILLIS = 2000;
+    private static final long DEFAULT_RAMP_MILLIS = 10;
+    private static final long REPORT_SECONDS = 10;
+    private final String host;
+    private final int port;
+    private final String features;
+    private final long thinkMillis;
+    private final double disconnectRate;
+    private final ScheduledExecutorService scheduler;
+    private final LatencyRecorder handshakes;
+    private final LatencyRecorder acks;
+    private final LatencyRecorder roundRemaining;
+    private final LatencyRecorder collections;
+    private final AtomicInteger connected;
+    private final AtomicInteger disconnected;
+    private final AtomicInteger failed;
+    private final CountDownLatch finished;
+
+    public LoadTest(String host, int port, String features, long thinkMillis, double disconnectRate,
+                    int numBots) {
+        this.host = host;
+        this.port = port;
+        this.features = features;
+        this.thinkMillis = thinkMillis;
+        this.disconnectRate = disconnectRate;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-test");
+            thread.setDaemon(true);
+            return thread;
+        });
+        handshakes = new LatencyRecorder("handshake");
+        acks = new LatencyRecorder("ack");
+        roundRemaining = new LatencyRecorder("round left");
+        collections = new LatencyRecorder("collection");
+        connected = new AtomicInteger();
+        disconnected = new AtomicInteger();
+        failed = new AtomicInteger();
+        finished = new CountDownLatch(numBots);
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getFeatures() {
+        return features;
+    }
+
+    public long getThinkMillis() {
+        return thinkMillis;
+    }
+
+    public double getDisconnectRate() {
+        return disconnectRate;
+    }
+
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    public LatencyRecorder getHandshakes() {
+        return handshakes;
+    }
+
+    public LatencyRecorder getAcks() {
+        return acks;
+    }
+
+    public LatencyRecorder getRoundRemaining() {
+        return roundRemaining;
+    }
+
+    public LatencyRecorder getCollections() {
+        return collections;
+    }
+
+    public void botConnected() {
+        connected.incrementAndGet();
+    }
+
+    public void botDisconnected() {
+        disconnected.incrementAndGet();
+    }
+
+    public void botFailed(String name, String reason) {
+        failed.incrementAndGet();
+        System.out.println(name + ": " + reason);
+    }
+
+    public void botFinished() {
+        finished.countDown();
+    }
+
+    public void report() {
+        System.out.println(String.format("connected=%d disconnected=%d failed=%d running=%d", connected.get(),
+            disconnected.get(), failed.get(), finished.getCount()));
+        System.out.println("  " + handshakes.summary());
+        System.out.println("  " + acks.summary());
+        System.out.println("  " + getRoundStarts().summary());
+        System.out.println("  " + collections.summary());
+    }
+
+    // Rounds all last equally long, so the most time any bot had left is the round length minus the fastest delivery.
+    private LatencyRecorder getRoundStarts() {
+        long[] remaining = roundRemaining.getSamples();
+        long longest = Arrays.stream(remaining).max().orElse(0);
+        LatencyRecorder roundStarts = new LatencyRecorder("round start");
+        for(long sample : remaining) {
+            roundStarts.record(longest - sample);
+        }
+        return roundStarts;
+    }
+
+    // Virtual threads need Java 21; older runtimes get small-stack platform threads instead.
+    private static ExecutorService newBotExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService)factory.invoke(null);
+        } catch(ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(null, runnable, "bot-" + count.incrementAndGet(), 256*1024);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static String getArg(String[] args, String name) {
+        for(String arg : args) {
+            if(arg.startsWith("--" + name + "=")) {
+                return arg.substring(name.length() + 3);
+            }
+        }
+        return null;
+    }
+
+    private static String getArg(String[] args, String name, Object fallback) {
+        String value = getArg(args, name);
+        return value == null ? String.valueOf(fallback) : value;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int numBots = Integer.parseInt(getArg(args, "bots", DEFAULT_BOTS));
+        int roomSize = Integer.parseInt(getArg(args, "room-size", DEFAULT_ROOM_SIZE));
+        long rampMillis = Long.parseLong(getArg(args, "ramp-millis", DEFAULT_RAMP_MILLIS));
+        String roomPrefix = getArg(args, "room-prefix", "LOAD");
+        LoadTest test = new LoadTest(
+            getArg(args, "host", "localhost"),
+            Integer.parseInt(getArg(args, "port", DEFAULT_PORT)),
+            getArg(args, "features", "pipeline,stream,clock"),
+            Long.parseLong(getArg(args, "think-millis", DEFAULT_THINK_MILLIS)),
+            Double.parseDouble(getArg(args, "disconnect-rate", 0)),
+            numBots);
+        test.getScheduler().scheduleAtFixedRate(test::report, REPORT_SECONDS, REPORT_SECONDS, TimeUnit.SECONDS);
+        ExecutorService bots = newBotExecutor();
+        long seed = Long.parseLong(getArg(args, "seed", System.nanoTime()));
+        for(int i = 0; i < numBots; i++) {
+            bots.execute(new Bot(test, "bot" + i, roomPrefix + (i/roomSize), seed + i));
+            if(rampMillis > 0) {
+                Thread.sleep(rampMillis);
+            }
+        }
+        String duration = getArg(args, "duration-seconds");
+        if(duration == null) {
+            test.finished.await();
+        } else {
+            test.finished.await(Long.parseLong(duration), TimeUnit.SECONDS);
+        }
+        test.report();
+        bots.shutdownNow();
+        System.exit(0);
+    }
+}
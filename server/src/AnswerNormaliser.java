@@ -0,0 +1,17 @@
+import java.util.Locale;
+
+public final class AnswerNormaliser {
+    private static final String[] ARTICLES = {"a ", "an ", "the "};
+
+    private AnswerNormaliser() {}
+
+    public static String normalise(String answer) {
+        String normalised = answer.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        for(String article : ARTICLES) {
+            if(normalised.startsWith(article) && normalised.length() > article.length()) {
+                return normalised.substring(article.length());
+            }
+        }
+        return normalised;
+    }
+}
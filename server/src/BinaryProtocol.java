@@ -0,0 +1,121 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class BinaryProtocol implements Protocol {
+    public static final byte QUERY = 1;
+    public static final byte CATEGORIES = 2;
+    public static final byte LETTER = 3;
+    public static final byte ANSWERS = 4;
+    public static final byte PONG = 5;
+    public static final byte RESUME = 6;
+    public static final BinaryProtocol BASIC = new BinaryProtocol(1);
+    public static final BinaryProtocol SEQUENCED = new BinaryProtocol(2);
+    public static final BinaryProtocol CLOCKED = new BinaryProtocol(3);
+    private static final int HEADER_SIZE = 6;
+    private final int version;
+
+    private BinaryProtocol(int version) {
+        this.version = version;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public ByteBuffer query(int seq, String query) {
+        return frame(QUERY, out -> {
+            writeSeq(out, seq);
+            out.writeUTF(query);
+        });
+    }
+
+    @Override
+    public ByteBuffer categories(int seq, int roundNum, int numRounds, int roundSeconds, List<String> categories) {
+        return frame(CATEGORIES, out -> {
+            writeSeq(out, seq);
+            out.writeByte(roundNum);
+            out.writeByte(numRounds);
+            out.writeShort(roundSeconds);
+            out.writeShort(categories.size());
+            for(String category : categories) {
+                out.writeUTF(category);
+            }
+        });
+    }
+
+    @Override
+    public ByteBuffer letter(int seq, char letter, long deadline) {
+        return frame(LETTER, out -> {
+            writeSeq(out, seq);
+            out.writeChar(letter);
+            if(version >= 3) {
+                out.writeLong(deadline);
+            }
+        });
+    }
+
+    @Override
+    public ByteBuffer resume(int seq, int roundNum, int numRounds, List<String> categories, char letter, long deadline,
+                             List<String> drafts) {
+        return frame(RESUME, out -> {
+            writeSeq(out, seq);
+            out.writeByte(roundNum);
+            out.writeByte(numRounds);
+            out.writeChar(letter);
+            if(version >= 3) {
+                out.writeLong(deadline);
+            }
+            out.writeShort(categories.size());
+            for(String category : categories) {
+                out.writeUTF(category);
+            }
+            for(String draft : drafts) {
+                out.writeUTF(draft);
+            }
+        });
+    }
+
+    @Override
+    public ByteBuffer pong(long clientTime, long serverTime) {
+        return frame(PONG, out -> {
+            out.writeLong(clientTime);
+            out.writeLong(serverTime);
+        });
+    }
+
+    @Override
+    public ByteBuffer answers() {
+        return frame(ANSWERS, out -> {});
+    }
+
+    private void writeSeq(DataOutputStream out, int seq) throws IOException {
+        if(version > 1) {
+            out.writeInt(seq);
+        }
+    }
+
+    private interface Payload {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private ByteBuffer frame(byte type, Payload payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(version);
+            out.writeByte(type);
+            out.writeInt(0);
+            payload.write(out);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        buffer.putInt(2, buffer.limit() - HEADER_SIZE);
+        return buffer;
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class Broadcaster {
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final long timeoutMillis;
+    private final Histogram ackTimes;
+
+    public Broadcaster(long timeoutMillis, Metrics metrics) {
+        this.timeoutMillis = timeoutMillis;
+        ackTimes = metrics.histogram("ack_rtt_seconds");
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "broadcast-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public CompletableFuture<List<Player>> broadcastBlocking(List<Player> players, Predicate<Player> action) {
+        List<Player> targets = new ArrayList<>(players);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(targets.size());
+        for(Player player : targets) {
+            results.add(CompletableFuture.supplyAsync(() -> action.test(player), executor).exceptionally(e -> {
+                e.printStackTrace();
+                return false;
+            }));
+        }
+        return await(targets, results);
+    }
+
+    public CompletableFuture<List<Player>> broadcastAsync(List<Player> players,
+                                                          Function<Player, CompletableFuture<Boolean>> action) {
+        List<Player> targets = new ArrayList<>(players);
+        List<CompletableFuture<Boolean>> acks = new ArrayList<>(targets.size());
+        for(Player player : targets) {
+            long sent = System.nanoTime();
+            CompletableFuture<Boolean> ack = action.apply(player);
+            ack.thenAccept(acknowledged -> {
+                if(acknowledged) {
+                    ackTimes.record(System.nanoTime() - sent);
+                }
+            });
+            acks.add(ack);
+        }
+        return await(targets, acks);
+    }
+
+    private CompletableFuture<List<Player>> await(List<Player> targets, List<CompletableFuture<Boolean>> acks) {
+        CompletableFuture<List<Player>> result = new CompletableFuture<>();
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable finish = () -> {
+            if(finished.compareAndSet(false, true)) {
+                result.complete(dropUnacknowledged(targets, acks));
+            }
+        };
+        ScheduledFuture<?> deadline = timer.schedule(finish, timeoutMillis, TimeUnit.MILLISECONDS);
+        CompletableFuture.allOf(acks.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, e) -> {
+            deadline.cancel(false);
+            finish.run();
+        });
+        return result;
+    }
+
+    private static List<Player> dropUnacknowledged(List<Player> targets, List<CompletableFuture<Boolean>> acks) {
+        List<Player> dropped = new ArrayList<>();
+        for(int i = 0; i < targets.size(); i++) {
+            CompletableFuture<Boolean> ack = acks.get(i);
+            if(!ack.isDone() || ack.isCompletedExceptionally() || !ack.getNow(false)) {
+                Player player = targets.get(i);
+                player.disconnect();
+                dropped.add(player);
+            }
+        }
+        return dropped;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,116 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class CategoryPool {
+    private static final long RELOAD_CHECK_MILLIS = 5000;
+    private final Path path;
+    private volatile Pack pack;
+    private long lastModified;
+
+    private static class Pack {
+        private final String[] categories;
+        private final List<String> list;
+
+        private Pack(List<String> categories) {
+            this.categories = categories.toArray(new String[0]);
+            list = Collections.unmodifiableList(Arrays.asList(this.categories));
+        }
+    }
+
+    private CategoryPool(Path path, List<String> categories) {
+        this.path = path;
+        pack = new Pack(categories);
+    }
+
+    public static CategoryPool fromResource(String name) throws IOException {
+        InputStream in = CategoryPool.class.getResourceAsStream(name);
+        if(in == null) {
+            throw new IOException("No category resource " + name);
+        }
+        return new CategoryPool(null, read(in));
+    }
+
+    public static CategoryPool fromFile(Path path) throws IOException {
+        CategoryPool pool = new CategoryPool(path, read(Files.newInputStream(path)));
+        pool.lastModified = Files.getLastModifiedTime(path).toMillis();
+        return pool;
+    }
+
+    public void watch(ScheduledExecutorService scheduler) {
+        if(path != null) {
+            scheduler.scheduleWithFixedDelay(this::reloadIfChanged, RELOAD_CHECK_MILLIS, RELOAD_CHECK_MILLIS,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static List<String> read(InputStream in) throws IOException {
+        List<String> categories = new ArrayList<>();
+        try(BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while((line = br.readLine()) != null) {
+                line = line.trim();
+                if(!line.isEmpty()) {
+                    categories.add(line);
+                }
+            }
+        }
+        return categories;
+    }
+
+    public int size() {
+        return pack.categories.length;
+    }
+
+    public String get(int index) {
+        return pack.categories[index];
+    }
+
+    public List<String> getCategories() {
+        return pack.list;
+    }
+
+    public List<String> sample(int count, Random random) {
+        Pack current = pack;
+        int size = current.categories.length;
+        int n = Math.min(count, size);
+        Map<Integer, Integer> swapped = new HashMap<>();
+        List<String> sample = new ArrayList<>(n);
+        for(int i = 0; i < n; i++) {
+            int j = i + random.nextInt(size - i);
+            int chosen = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+            sample.add(current.categories[chosen]);
+        }
+        return sample;
+    }
+
+    private void reloadIfChanged() {
+        try {
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if(modified != lastModified) {
+                List<String> categories = read(Files.newInputStream(path));
+                if(!categories.isEmpty()) {
+                    pack = new Pack(categories);
+                    lastModified = modified;
+                    System.out.println("Reloaded " + categories.size() + " categories from " + path);
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class Checkpoint {
+    private static final int VERSION = 2;
+    private final String room;
+    private final long seed;
+    private final int roundNum;
+    private final List<String> categories;
+    private final char letter;
+    private final long deadline;
+    private final List<PlayerState> players;
+
+    public static class PlayerState {
+        private final String name;
+        private final String features;
+        private final String sessionToken;
+        private final int score;
+        private final int draftRound;
+        private final String[] drafts;
+
+        private PlayerState(String name, String features, String sessionToken, int score, int draftRound,
+                            String[] drafts) {
+            this.name = name;
+            this.features = features;
+            this.sessionToken = sessionToken;
+            this.score = score;
+            this.draftRound = draftRound;
+            this.drafts = drafts;
+        }
+
+        public static PlayerState of(Player player) {
+            return new PlayerState(player.getName(), player.getFeatures(), player.getSessionToken(),
+                player.getScore(), player.getDraftRound(), player.getDrafts());
+        }
+
+        public Player restore(String room) {
+            return new Player(Handshake.restore(features, room, name), sessionToken, score, draftRound, drafts);
+        }
+    }
+
+    public Checkpoint(String room, long seed, int roundNum, List<String> categories, char letter, long deadline,
+                      List<PlayerState> players) {
+        this.room = room;
+        this.seed = seed;
+        this.roundNum = roundNum;
+        this.categories = Collections.unmodifiableList(new ArrayList<>(categories));
+        this.letter = letter;
+        this.deadline = deadline;
+        this.players = Collections.unmodifiableList(new ArrayList<>(players));
+    }
+
+    public String getRoom() {
+        return room;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getRoundNum() {
+        return roundNum;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public char getLetter() {
+        return letter;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public List<PlayerState> getPlayers() {
+        return players;
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeString(out, room);
+            out.writeLong(seed);
+            out.writeInt(roundNum);
+            out.writeInt(categories.size());
+            for(String category : categories) {
+                writeString(out, category);
+            }
+            out.writeChar(letter);
+            out.writeLong(deadline);
+            out.writeInt(players.size());
+            for(PlayerState player : players) {
+                writeString(out, player.name);
+                writeString(out, player.features);
+                writeString(out, player.sessionToken);
+                out.writeInt(player.score);
+                out.writeInt(player.draftRound);
+                out.writeInt(player.drafts.length);
+                for(String draft : player.drafts) {
+                    writeString(out, draft);
+                }
+            }
+        } catch(IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Checkpoint decode(byte[] data) throws IOException {
+        try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if(version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            String room = readString(in);
+            long seed = in.readLong();
+            int roundNum = in.readInt();
+            String[] categories = new String[readCount(in)];
+            for(int i = 0; i < categories.length; i++) {
+                categories[i] = readString(in);
+            }
+            char letter = in.readChar();
+            long deadline = in.readLong();
+            List<PlayerState> players = new ArrayList<>();
+            for(int count = readCount(in); count > 0; count--) {
+                String name = readString(in);
+                String features = readString(in);
+                String sessionToken = readString(in);
+                int score = in.readInt();
+                int draftRound = in.readInt();
+                String[] drafts = new String[readCount(in)];
+                for(int i = 0; i < drafts.length; i++) {
+                    drafts[i] = readString(in);
+                }
+                players.add(new PlayerState(name, features, sessionToken, score, draftRound, drafts));
+            }
+            return new Checkpoint(room, seed, roundNum, Arrays.asList(categories), letter, deadline, players);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readCount(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if(count < 0 || count > in.available()) {
+            throw new IOException("Corrupt checkpoint length " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class Checkpointer {
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+    private static final String SUFFIX = ".ckpt";
+    private final Path directory;
+    private final RoomRegistry rooms;
+    private final ScheduledExecutorService scheduler;
+    private final Metrics metrics;
+    private final long intervalMillis;
+    private final ExecutorService writer;
+    private final Map<String, byte[]> written;
+    private ScheduledFuture<?> task;
+
+    public Checkpointer(Path directory, RoomRegistry rooms, ScheduledExecutorService scheduler, Metrics metrics,
+                        long intervalMillis) {
+        this.directory = directory;
+        this.rooms = rooms;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        this.intervalMillis = intervalMillis;
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        written = new ConcurrentHashMap<>();
+    }
+
+    public int restore() throws IOException {
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+        int restored = 0;
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for(Path file : files) {
+                try {
+                    byte[] data = Files.readAllBytes(file);
+                    Checkpoint checkpoint = Checkpoint.decode(data);
+                    rooms.restore(checkpoint);
+                    written.put(checkpoint.getRoom(), data);
+                    restored++;
+                } catch(IOException e) {
+                    System.out.println("Skipping unreadable checkpoint " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        metrics.observe("restore_seconds", elapsed);
+        if(restored > 0) {
+            System.out.println("Restored " + restored + " rooms in " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+        }
+        return restored;
+    }
+
+    public void start() {
+        task = scheduler.scheduleAtFixedRate(this::checkpoint, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if(task != null) {
+            task.cancel(false);
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(intervalMillis, TimeUnit.MILLISECONDS);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkpoint() {
+        for(Room room : rooms.getRooms()) {
+            try {
+                checkpointRoom(room);
+            } catch(Exception e) {
+                System.out.println("Could not checkpoint room " + room.getCode() + ": " + e);
+            }
+        }
+        for(String code : written.keySet()) {
+            if(rooms.get(code) == null) {
+                discard(code);
+            }
+        }
+    }
+
+    private void checkpointRoom(Room room) {
+        Checkpoint checkpoint = room.checkpoint();
+        if(checkpoint == null) {
+            if(room.getPhase() == Room.Phase.COMPLETE) {
+                discard(room.getCode());
+            }
+            return;
+        }
+        byte[] data = checkpoint.encode();
+        if(!Arrays.equals(data, written.put(room.getCode(), data))) {
+            writer.execute(() -> write(room.getCode(), data));
+        }
+    }
+
+    private void discard(String code) {
+        if(written.remove(code) != null) {
+            writer.execute(() -> {
+                try {
+                    Files.deleteIfExists(file(code, SUFFIX));
+                } catch(IOException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+    }
+
+    private void write(String code, byte[] data) {
+        long start = System.nanoTime();
+        try {
+            Path file = file(code, SUFFIX);
+            Path temp = file(code, SUFFIX + ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        metrics.observe("checkpoint_write_seconds", System.nanoTime() - start);
+    }
+
+    private Path file(String code, String suffix) throws UnsupportedEncodingException {
+        return directory.resolve(URLEncoder.encode(code, "UTF-8") + suffix);
+    }
+}
@@ -0,0 +1,324 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+public class Connection {
+    private static final int READ_BUFFER_SIZE = 1024;
+    private static final int MAX_LINE_LENGTH = 65536;
+    private static final int MAX_GATHER = 64;
+    private static final String CLOSED = new String();
+    private final ConnectionServer server;
+    private final SocketChannel channel;
+    private final ByteBuffer readBuffer;
+    private final ByteArrayOutputStream lineBuffer;
+    private final BlockingQueue<String> lines;
+    private final Queue<ByteBuffer> writeQueue;
+    private final AtomicInteger queuedWrites;
+    private final AtomicLong queuedBytes;
+    private final Queue<ByteBuffer> parked;
+    private final ByteBuffer[] gather;
+    private volatile Predicate<String> lineHandler;
+    private volatile Runnable closeHandler;
+    private final AtomicBoolean closed;
+    private volatile long lastRead;
+    private long parkedBytes;
+    private long parkedSince;
+    private final long createdNanos;
+    private boolean handshaken;
+
+    public Connection(ConnectionServer server, SocketChannel channel) {
+        this.server = server;
+        this.channel = channel;
+        readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        lineBuffer = new ByteArrayOutputStream();
+        lines = new LinkedBlockingQueue<>();
+        writeQueue = new ConcurrentLinkedQueue<>();
+        queuedWrites = new AtomicInteger();
+        queuedBytes = new AtomicLong();
+        closed = new AtomicBoolean();
+        parked = new ArrayDeque<>();
+        gather = new ByteBuffer[MAX_GATHER];
+        lastRead = System.currentTimeMillis();
+        createdNanos = System.nanoTime();
+    }
+
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    public void send(String... messageLines) {
+        send(TextProtocol.encode(messageLines));
+    }
+
+    public void send(ByteBuffer message) {
+        if(closed.get()) {
+            return;
+        }
+        int size = message.remaining();
+        if(server.getOutboundPolicy().getOverflow() == OutboundPolicy.Overflow.BLOCK) {
+            boolean overflowed;
+            synchronized(parked) {
+                if(parked.isEmpty() && reserve(size)) {
+                    enqueue(message);
+                    overflowed = false;
+                } else if(park(message, size)) {
+                    return;
+                } else {
+                    overflowed = true;
+                }
+            }
+            if(overflowed) {
+                overflow(OutboundPolicy.Overflow.DISCONNECT);
+                return;
+            }
+        } else if(reserve(size)) {
+            enqueue(message);
+        } else {
+            overflow(server.getOutboundPolicy().getOverflow());
+            return;
+        }
+        server.requestWrite(this);
+    }
+
+    private boolean reserve(int size) {
+        long limit = server.getOutboundPolicy().getLimitBytes();
+        while(true) {
+            long queued = queuedBytes.get();
+            if(queued != 0 && queued + size > limit) {
+                return false;
+            }
+            if(queuedBytes.compareAndSet(queued, queued + size)) {
+                return true;
+            }
+        }
+    }
+
+    private void enqueue(ByteBuffer message) {
+        writeQueue.add(message);
+        queuedWrites.incrementAndGet();
+    }
+
+    private boolean park(ByteBuffer message, int size) {
+        if(parkedBytes + size > server.getOutboundPolicy().getLimitBytes()) {
+            return false;
+        }
+        if(parked.isEmpty()) {
+            parkedSince = System.currentTimeMillis();
+            server.stall(this);
+        }
+        parked.add(message);
+        parkedBytes += size;
+        server.countBlocked();
+        return true;
+    }
+
+    private void unpark() {
+        synchronized(parked) {
+            boolean moved = false;
+            ByteBuffer message;
+            while((message = parked.peek()) != null && reserve(message.remaining())) {
+                parked.poll();
+                parkedBytes -= message.remaining();
+                enqueue(message);
+                moved = true;
+            }
+            if(parked.isEmpty()) {
+                server.unstall(this);
+            } else if(moved) {
+                parkedSince = System.currentTimeMillis();
+            }
+        }
+    }
+
+    void checkStalled(long now) {
+        if(closed.get()) {
+            server.unstall(this);
+            return;
+        }
+        boolean expired;
+        synchronized(parked) {
+            expired = !parked.isEmpty() && now - parkedSince >= server.getOutboundPolicy().getBlockMillis();
+        }
+        if(expired) {
+            overflow(OutboundPolicy.Overflow.DISCONNECT);
+        }
+    }
+
+    private void overflow(OutboundPolicy.Overflow overflow) {
+        if(overflow == OutboundPolicy.Overflow.DROP) {
+            server.countDropped();
+        } else {
+            server.countOverflowDisconnect();
+            close();
+        }
+    }
+
+    public void setLineHandler(Predicate<String> lineHandler) {
+        this.lineHandler = lineHandler;
+    }
+
+    public void setCloseHandler(Runnable closeHandler) {
+        this.closeHandler = closeHandler;
+    }
+
+    public String readLine() throws InterruptedException {
+        if(closed.get() && lines.isEmpty()) {
+            return null;
+        }
+        String line = lines.take();
+        if(line == CLOSED) {
+            lines.add(CLOSED);
+            return null;
+        }
+        return line;
+    }
+
+    public String readLine(long timeoutMillis) throws InterruptedException {
+        if(closed.get() && lines.isEmpty()) {
+            return null;
+        }
+        String line = lines.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if(line == CLOSED) {
+            lines.add(CLOSED);
+            return null;
+        }
+        return line;
+    }
+
+    public int getQueuedWrites() {
+        synchronized(parked) {
+            return queuedWrites.get() + parked.size();
+        }
+    }
+
+    public long getQueuedBytes() {
+        synchronized(parked) {
+            return queuedBytes.get() + parkedBytes;
+        }
+    }
+
+    public long getLastRead() {
+        return lastRead;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    public void close() {
+        if(!closed.compareAndSet(false, true)) {
+            return;
+        }
+        lines.add(CLOSED);
+        try {
+            channel.close();
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        server.unregister(this);
+        synchronized(parked) {
+            parked.clear();
+            parkedBytes = 0;
+        }
+        Runnable handler = closeHandler;
+        if(handler != null) {
+            handler.run();
+        }
+    }
+
+    public String getRemoteAddress() {
+        try {
+            return String.valueOf(channel.getRemoteAddress());
+        } catch(IOException e) {
+            return "<unknown>";
+        }
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    boolean hasPendingWrites() {
+        return !writeQueue.isEmpty();
+    }
+
+    void onReadable(SelectionKey key, ConnectionServer.HandshakeListener listener) throws IOException {
+        readBuffer.clear();
+        int read = channel.read(readBuffer);
+        if(read < 0) {
+            close();
+            return;
+        }
+        lastRead = System.currentTimeMillis();
+        readBuffer.flip();
+        while(readBuffer.hasRemaining()) {
+            byte b = readBuffer.get();
+            if(b == '\n') {
+                String line = new String(lineBuffer.toByteArray(), StandardCharsets.UTF_8);
+                lineBuffer.reset();
+                if(line.endsWith("\r")) {
+                    line = line.substring(0, line.length() - 1);
+                }
+                if(handshaken) {
+                    Predicate<String> handler = lineHandler;
+                    if(handler == null || !handler.test(line)) {
+                        lines.add(line);
+                    }
+                } else {
+                    handshaken = true;
+                    listener.handshake(this, line);
+                }
+            } else if(lineBuffer.size() >= MAX_LINE_LENGTH) {
+                close();
+                return;
+            } else {
+                lineBuffer.write(b);
+            }
+        }
+    }
+
+    void onWritable(SelectionKey key) throws IOException {
+        try {
+            while(true) {
+                unpark();
+                int count = 0;
+                for(ByteBuffer buffer : writeQueue) {
+                    gather[count++] = buffer;
+                    if(count == gather.length) {
+                        break;
+                    }
+                }
+                if(count == 0) {
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+                long written = channel.write(gather, 0, count);
+                server.countWrite();
+                queuedBytes.addAndGet(-written);
+                for(int i = 0; i < count && !gather[i].hasRemaining(); i++) {
+                    writeQueue.poll();
+                    queuedWrites.decrementAndGet();
+                }
+                if(gather[count - 1].hasRemaining()) {
+                    return;
+                }
+            }
+        } finally {
+            Arrays.fill(gather, null);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionServer implements Runnable {
+    private static final long STALL_CHECK_MILLIS = 50;
+    private final InetSocketAddress address;
+    private final HandshakeListener listener;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<Connection> pendingWrites;
+    private final OutboundPolicy outboundPolicy;
+    private final Set<Connection> connections;
+    private final Set<Connection> stalled;
+    private final AtomicLong accepted;
+    private final AtomicLong writes;
+    private final AtomicLong dropped;
+    private final AtomicLong blocked;
+    private final AtomicLong overflowDisconnects;
+    private volatile boolean running;
+
+    public interface HandshakeListener {
+        void handshake(Connection connection, String line);
+    }
+
+    public ConnectionServer(InetSocketAddress address, HandshakeListener listener) throws IOException {
+        this(address, listener, OutboundPolicy.DEFAULT);
+    }
+
+    public ConnectionServer(InetSocketAddress address, HandshakeListener listener, OutboundPolicy outboundPolicy)
+            throws IOException {
+        this.address = address;
+        this.listener = listener;
+        this.outboundPolicy = outboundPolicy;
+        pendingWrites = new ConcurrentLinkedQueue<>();
+        connections = ConcurrentHashMap.newKeySet();
+        stalled = ConcurrentHashMap.newKeySet();
+        accepted = new AtomicLong();
+        writes = new AtomicLong();
+        dropped = new AtomicLong();
+        blocked = new AtomicLong();
+        overflowDisconnects = new AtomicLong();
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public OutboundPolicy getOutboundPolicy() {
+        return outboundPolicy;
+    }
+
+    public void exportTo(Metrics metrics) {
+        metrics.counter("connections_accepted_total", this::getAcceptedCount);
+        metrics.counter("outbound_writes_total", writes::get);
+        metrics.counter("outbound_dropped_total", dropped::get);
+        metrics.counter("outbound_blocked_total", blocked::get);
+        metrics.counter("outbound_overflow_disconnects_total", overflowDisconnects::get);
+        metrics.gauge("outbound_queued_bytes", () -> connections.stream()
+            .mapToLong(Connection::getQueuedBytes).sum());
+        metrics.gauge("outbound_queued_messages", () -> connections.stream()
+            .mapToLong(Connection::getQueuedWrites).sum());
+        metrics.gauge("outbound_max_queued_bytes", () -> connections.stream()
+            .mapToLong(Connection::getQueuedBytes).max().orElse(0));
+    }
+
+    void countWrite() {
+        writes.incrementAndGet();
+    }
+
+    void countDropped() {
+        dropped.incrementAndGet();
+    }
+
+    void countBlocked() {
+        blocked.incrementAndGet();
+    }
+
+    void countOverflowDisconnect() {
+        overflowDisconnects.incrementAndGet();
+    }
+
+    void unregister(Connection connection) {
+        connections.remove(connection);
+        stalled.remove(connection);
+    }
+
+    void stall(Connection connection) {
+        stalled.add(connection);
+        selector.wakeup();
+    }
+
+    void unstall(Connection connection) {
+        stalled.remove(connection);
+    }
+
+    public void start() {
+        Thread thread = new Thread(this, "connection-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        while(running) {
+            try {
+                if(stalled.isEmpty()) {
+                    selector.select();
+                } else {
+                    selector.select(STALL_CHECK_MILLIS);
+                }
+                registerPendingWrites();
+                for(Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext();) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    handle(key);
+                }
+                checkStalled();
+            } catch(ClosedSelectorException e) {
+                return;
+            } catch(IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        Connection connection = (Connection)key.attachment();
+        try {
+            if(!key.isValid()) {
+                return;
+            }
+            if(key.isAcceptable()) {
+                accept();
+                return;
+            }
+            if(key.isReadable()) {
+                connection.onReadable(key, listener);
+            }
+            if(key.isValid() && key.isWritable()) {
+                connection.onWritable(key);
+            }
+        } catch(IOException | CancelledKeyException e) {
+            if(connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if(channel == null) {
+            return;
+        }
+        accepted.incrementAndGet();
+        channel.configureBlocking(false);
+        Connection connection = new Connection(this, channel);
+        connections.add(connection);
+        channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    private void checkStalled() {
+        long now = System.currentTimeMillis();
+        for(Connection connection : stalled) {
+            connection.checkStalled(now);
+        }
+    }
+
+    private void registerPendingWrites() {
+        Connection connection;
+        while((connection = pendingWrites.poll()) != null) {
+            SelectionKey key = connection.getChannel().keyFor(selector);
+            if(key != null && key.isValid() && connection.hasPendingWrites()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    void requestWrite(Connection connection) {
+        pendingWrites.add(connection);
+        selector.wakeup();
+    }
+
+    public void close() {
+        running = false;
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionServer[" + address + "]";
+    }
+}
@@ -4,19 +4,17 @@ import javafx.animation.Timeline;
 import javafx.util.Duration;
 
 public class Countdown extends DefaultLabel {
-    private int max;
-    private int seconds;
+    private long deadline;
     private Timeline timeline;
 
-    public Countdown(int maxSeconds) {
+    public Countdown(long deadlineMillis) {
         super(128);
-        seconds = max = maxSeconds;
+        deadline = deadlineMillis;
         timeline = new Timeline();
         timeline.setCycleCount(Animation.INDEFINITE);
-        timeline.getKeyFrames().add(new KeyFrame(Duration.seconds(1), event -> {
-            seconds--;
+        timeline.getKeyFrames().add(new KeyFrame(Duration.millis(200), event -> {
             updateText();
-            if(seconds <= 0) {
+            if(getRemainingMillis() <= 0) {
                 stop();
                 onComplete();
             }
@@ -27,7 +25,12 @@ public class Countdown extends DefaultLabel {
 
     protected void onComplete() {}
 
+    private long getRemainingMillis() {
+        return Math.max(0, deadline - System.currentTimeMillis());
+    }
+
     private void updateText() {
+        long seconds = (getRemainingMillis() + 999) / 1000;
         setText(String.format("%d:%02d", seconds/60, seconds%60));
     }
 
@@ -38,8 +41,4 @@ public class Countdown extends DefaultLabel {
     public void stop() {
         timeline.stop();
     }
-
-    public void reset() {
-        seconds = max;
-    }
 }
@@ -0,0 +1,35 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class DictionaryValidator implements Validator {
+    private final Map<String, Set<String>> dictionaries;
+
+    public DictionaryValidator(Map<String, Set<String>> dictionaries) {
+        this.dictionaries = dictionaries;
+    }
+
+    public static DictionaryValidator load(Path path) throws IOException {
+        Map<String, Set<String>> dictionaries = new HashMap<>();
+        try(BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = br.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if(tab > 0) {
+                    dictionaries.computeIfAbsent(line.substring(0, tab).trim().toLowerCase(Locale.ROOT), key -> new HashSet<>())
+                        .add(AnswerNormaliser.normalise(line.substring(tab + 1)));
+                }
+            }
+        }
+        return new DictionaryValidator(dictionaries);
+    }
+
+    @Override
+    public Verdict validate(String category, char letter, String answer) {
+        Set<String> dictionary = dictionaries.get(category.toLowerCase(Locale.ROOT));
+        return dictionary != null && dictionary.contains(answer) ? Verdict.ACCEPT : Verdict.REVIEW;
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DuplicateDetector {
+    private final boolean fuzzy;
+
+    public DuplicateDetector(boolean fuzzy) {
+        this.fuzzy = fuzzy;
+    }
+
+    public boolean[] findDuplicates(List<String> answers) {
+        Map<String, Integer> keys = new HashMap<>();
+        int[] keyOf = new int[answers.size()];
+        List<String> distinct = new ArrayList<>();
+        for(int i = 0; i < answers.size(); i++) {
+            String answer = answers.get(i);
+            if(answer == null || answer.isEmpty()) {
+                keyOf[i] = -1;
+                continue;
+            }
+            Integer key = keys.get(answer);
+            if(key == null) {
+                key = distinct.size();
+                keys.put(answer, key);
+                distinct.add(answer);
+            }
+            keyOf[i] = key;
+        }
+        int[] parent = new int[distinct.size()];
+        for(int k = 0; k < parent.length; k++) {
+            parent[k] = k;
+        }
+        if(fuzzy) {
+            unionNearMatches(distinct, parent);
+        }
+        int[] groupSize = new int[distinct.size()];
+        for(int key : keyOf) {
+            if(key >= 0) {
+                groupSize[find(parent, key)]++;
+            }
+        }
+        boolean[] duplicates = new boolean[answers.size()];
+        for(int i = 0; i < answers.size(); i++) {
+            duplicates[i] = keyOf[i] >= 0 && groupSize[find(parent, keyOf[i])] > 1;
+        }
+        return duplicates;
+    }
+
+    private static void unionNearMatches(List<String> distinct, int[] parent) {
+        Map<String, Integer> whole = new HashMap<>();
+        for(int k = 0; k < distinct.size(); k++) {
+            whole.put(distinct.get(k), k);
+        }
+        Map<String, Integer> substitutions = new HashMap<>();
+        for(int k = 0; k < distinct.size(); k++) {
+            String key = distinct.get(k);
+            for(int i = 0; i < key.length(); i++) {
+                String deletion = key.substring(0, i) + key.substring(i + 1);
+                Integer shorter = whole.get(deletion);
+                if(shorter != null) {
+                    union(parent, k, shorter);
+                }
+                Integer sameLength = substitutions.putIfAbsent(i + ":" + deletion, k);
+                if(sameLength != null) {
+                    union(parent, k, sameLength);
+                }
+            }
+        }
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        parent[find(parent, a)] = find(parent, b);
+    }
+
+    private static int find(int[] parent, int k) {
+        while(parent[k] != k) {
+            parent[k] = parent[parent[k]];
+            k = parent[k];
+        }
+        return k;
+    }
+}
@@ -0,0 +1,168 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class EventLog implements RoomListener {
+    private static final int MAX_BATCH = 512;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    private static final GameEvent CLOSE = new GameEvent(GameEvent.Type.COMPLETE, 0, "");
+    private final DataOutputStream out;
+    private final BlockingQueue<GameEvent> pending;
+    private final Thread writer;
+
+    private EventLog(DataOutputStream out) {
+        this.out = out;
+        pending = new LinkedBlockingQueue<>();
+        writer = new Thread(this::write, "event-writer");
+        writer.setDaemon(true);
+    }
+
+    public static EventLog open(Path path) throws IOException {
+        EventLog log = new EventLog(new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND))));
+        log.writer.start();
+        return log;
+    }
+
+    @Override
+    public void playerJoined(Room room, Player player) {
+        append(room, GameEvent.Type.JOIN, Integer.toString(player.getId()), player.getName());
+    }
+
+    @Override
+    public void playerLeft(Room room, Player player) {
+        append(room, GameEvent.Type.LEAVE, Integer.toString(player.getId()));
+    }
+
+    @Override
+    public void gameStarted(Room room) {
+        start(room, false, (char)0, Collections.emptyList());
+    }
+
+    @Override
+    public void gameRestored(Room room, List<Player> restored) {
+        start(room, true, room.getLetter(), restored);
+    }
+
+    private void start(Room room, boolean restoring, char letter, List<Player> restored) {
+        List<String> fields = new ArrayList<>();
+        fields.add(Long.toString(room.getSeed()));
+        fields.add(room.isHosted() ? "1" : "0");
+        fields.add(restoring ? "1" : "0");
+        fields.add(Integer.toString(room.getRoundNum()));
+        fields.add(letter == 0 ? "-" : Character.toString(letter));
+        for(Player player : restored) {
+            fields.add(Integer.toString(player.getId()));
+            fields.add(player.getName());
+            fields.add(Integer.toString(player.getScore()));
+        }
+        append(room, GameEvent.Type.START, fields.toArray(new String[0]));
+    }
+
+    @Override
+    public void phaseChanged(Room room, Room.Phase phase) {
+        append(room, GameEvent.Type.PHASE, phase.name());
+        if(phase == Room.Phase.LETTER) {
+            List<String> fields = new ArrayList<>();
+            fields.add(Integer.toString(room.getRoundNum()));
+            fields.addAll(room.getCategories());
+            append(room, GameEvent.Type.CATEGORIES, fields.toArray(new String[0]));
+        }
+    }
+
+    @Override
+    public void countdownStarted(Room room, long deadline) {
+        append(room, GameEvent.Type.LETTER, Character.toString(room.getLetter()), Long.toString(deadline));
+    }
+
+    @Override
+    public void roundScored(Room room, ScoreSheet sheet) {
+        List<String> fields = new ArrayList<>();
+        fields.add(Integer.toString(room.getRoundNum()));
+        fields.add(Character.toString(sheet.getLetter()));
+        fields.add(Integer.toString(sheet.getCategories().size()));
+        fields.add(Integer.toString(sheet.getPlayers().size()));
+        sheet.getPlayers().forEach(player -> fields.add(Integer.toString(player.getId())));
+        for(int c = 0; c < sheet.getCategories().size(); c++) {
+            for(int p = 0; p < sheet.getPlayers().size(); p++) {
+                fields.add(sheet.getAnswer(c, p));
+                fields.add(sheet.isAccepted(c, p) ? "1" : "0");
+            }
+        }
+        append(room, GameEvent.Type.ROUND, fields.toArray(new String[0]));
+        append(room, GameEvent.Type.SNAPSHOT, scores(sheet.getPlayers()));
+    }
+
+    @Override
+    public void gameComplete(Room room) {
+        append(room, GameEvent.Type.COMPLETE, scores(room.getPlayers()));
+    }
+
+    private static String[] scores(List<Player> players) {
+        String[] fields = new String[players.size() * 2];
+        for(int i = 0; i < players.size(); i++) {
+            fields[i * 2] = Integer.toString(players.get(i).getId());
+            fields[i * 2 + 1] = Integer.toString(players.get(i).getScore());
+        }
+        return fields;
+    }
+
+    private void append(Room room, GameEvent.Type type, String... fields) {
+        pending.add(new GameEvent(type, System.currentTimeMillis(), room.getCode(), fields));
+    }
+
+    private void write() {
+        List<GameEvent> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while(true) {
+                batch.add(pending.take());
+                pending.drainTo(batch, MAX_BATCH - 1);
+                boolean closing = false;
+                for(GameEvent event : batch) {
+                    if(event == CLOSE) {
+                        closing = true;
+                    } else {
+                        write(event);
+                    }
+                }
+                batch.clear();
+                try {
+                    out.flush();
+                    if(closing) {
+                        out.close();
+                        return;
+                    }
+                } catch(IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(GameEvent event) {
+        try {
+            out.write(event.encode());
+        } catch(IOException | RuntimeException e) {
+            System.out.println("Dropped event " + event.getType() + " for room " + event.getRoom() + ": " + e);
+        }
+    }
+
+    public void close() {
+        pending.add(CLOSE);
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class GameEvent {
+    public enum Type { START, JOIN, LEAVE, PHASE, CATEGORIES, LETTER, ROUND, SNAPSHOT, COMPLETE }
+
+    private static final Type[] TYPES = Type.values();
+    private static final int MAX_FIELD_BYTES = 1 << 20;
+    private final Type type;
+    private final long time;
+    private final String room;
+    private final String[] fields;
+
+    public GameEvent(Type type, long time, String room, String... fields) {
+        this.type = type;
+        this.time = time;
+        this.room = room;
+        this.fields = fields;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public String getRoom() {
+        return room;
+    }
+
+    public int size() {
+        return fields.length;
+    }
+
+    public String get(int field) {
+        return fields[field];
+    }
+
+    public int getInt(int field) {
+        return Integer.parseInt(fields[field]);
+    }
+
+    public long getLong(int field) {
+        return Long.parseLong(fields[field]);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type.ordinal());
+            out.writeLong(time);
+            writeString(out, room);
+            out.writeInt(fields.length);
+            for(String field : fields) {
+                writeString(out, field);
+            }
+        } catch(IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        if(length > MAX_FIELD_BYTES) {
+            length = MAX_FIELD_BYTES;
+            while((bytes[length] & 0xC0) == 0x80) {
+                length--;
+            }
+        }
+        out.writeInt(length);
+        out.write(bytes, 0, length);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if(length < 0 || length > MAX_FIELD_BYTES) {
+            throw new IOException("Corrupt event field length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static GameEvent read(DataInputStream in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if(ordinal >= TYPES.length) {
+            throw new IOException("Unknown event type " + ordinal);
+        }
+        long time = in.readLong();
+        String room = readString(in);
+        int count = in.readInt();
+        if(count < 0) {
+            throw new IOException("Corrupt event field count " + count);
+        }
+        String[] fields = new String[count];
+        for(int i = 0; i < fields.length; i++) {
+            fields[i] = readString(in);
+        }
+        return new GameEvent(TYPES[ordinal], time, room, fields);
+    }
+
+    @Override
+    public String toString() {
+        return type + "[" + room + "] " + String.join(" ", fields);
+    }
+}
@@ -0,0 +1,319 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class GameHistory implements RoomListener {
+    private static final int MAX_BATCH = 512;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    private static final String[] CLOSE = new String[0];
+    private final Path path;
+    private final BlockingQueue<String[]> pending;
+    private final Map<Room, String> games;
+    private final Map<Room, Set<Player>> rosters;
+    private final Map<String, Standing> standings;
+    private final Map<String, AnswerStats> answerStats;
+    private final Set<String> hostedGames;
+    private final RulingListener rulingListener;
+    private final Thread writer;
+
+    public interface RulingListener {
+        void ruled(String category, String answer, boolean accepted);
+    }
+
+    public static class Standing {
+        private final String name;
+        private final int games;
+        private final int wins;
+        private final long points;
+
+        private Standing(String name, int games, int wins, long points) {
+            this.name = name;
+            this.games = games;
+            this.wins = wins;
+            this.points = points;
+        }
+
+        private Standing plus(Standing other) {
+            return new Standing(name, games + other.games, wins + other.wins, points + other.points);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public long getPoints() {
+            return points;
+        }
+    }
+
+    public static class AnswerStats {
+        private final String category;
+        private final String answer;
+        private final int submitted;
+        private final int accepted;
+
+        private AnswerStats(String category, String answer, int submitted, int accepted) {
+            this.category = category;
+            this.answer = answer;
+            this.submitted = submitted;
+            this.accepted = accepted;
+        }
+
+        private AnswerStats plus(AnswerStats other) {
+            return new AnswerStats(category, answer, submitted + other.submitted, accepted + other.accepted);
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getAnswer() {
+            return answer;
+        }
+
+        public int getSubmitted() {
+            return submitted;
+        }
+
+        public int getAccepted() {
+            return accepted;
+        }
+    }
+
+    private GameHistory(Path path, RulingListener rulingListener) {
+        this.path = path;
+        this.rulingListener = rulingListener;
+        pending = new LinkedBlockingQueue<>();
+        games = new ConcurrentHashMap<>();
+        rosters = new ConcurrentHashMap<>();
+        standings = new ConcurrentHashMap<>();
+        answerStats = new ConcurrentHashMap<>();
+        hostedGames = ConcurrentHashMap.newKeySet();
+        writer = new Thread(this::write, "history-writer");
+        writer.setDaemon(true);
+    }
+
+    public static GameHistory open(Path path, RulingListener rulingListener) throws IOException {
+        GameHistory history = new GameHistory(path, rulingListener);
+        if(Files.exists(path)) {
+            try(Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+                lines.forEach(line -> history.index(unescape(line.split("\t", -1))));
+            }
+        }
+        history.writer.start();
+        return history;
+    }
+
+    @Override
+    public void gameStarted(Room room) {
+        register(room, Collections.emptyList());
+    }
+
+    @Override
+    public void gameRestored(Room room, List<Player> restored) {
+        register(room, restored);
+    }
+
+    private void register(Room room, List<Player> restored) {
+        rosters.put(room, new LinkedHashSet<>(restored));
+        String game = room.getCode() + "-" + System.currentTimeMillis();
+        games.put(room, game);
+        append("G", game, room.getCode(), Long.toString(System.currentTimeMillis()), room.isHosted() ? "1" : "0",
+            Long.toString(room.getSeed()));
+    }
+
+    @Override
+    public void roundScored(Room room, ScoreSheet sheet) {
+        String game = games.get(room);
+        if(game == null) {
+            return;
+        }
+        rosters.get(room).addAll(sheet.getPlayers());
+        String round = Integer.toString(room.getRoundNum());
+        List<String> fields = new ArrayList<>();
+        fields.add("R");
+        fields.add(game);
+        fields.add(round);
+        fields.add(Character.toString(sheet.getLetter()));
+        fields.addAll(sheet.getCategories());
+        append(fields.toArray(new String[0]));
+        for(int c = 0; c < sheet.getCategories().size(); c++) {
+            for(int p = 0; p < sheet.getPlayers().size(); p++) {
+                append("A", game, round, sheet.getCategories().get(c), sheet.getPlayers().get(p).getName(),
+                    sheet.getAnswer(c, p), sheet.getVerdict(c, p).name(), sheet.isAccepted(c, p) ? "1" : "0");
+            }
+        }
+    }
+
+    @Override
+    public void gameComplete(Room room) {
+        String game = games.remove(room);
+        Set<Player> players = rosters.remove(room);
+        if(game == null) {
+            return;
+        }
+        int best = players.stream().mapToInt(Player::getScore).max().orElse(0);
+        for(Player player : players) {
+            append("S", game, player.getName(), Integer.toString(player.getScore()),
+                player.getScore() == best ? "1" : "0");
+        }
+    }
+
+    public List<Standing> getLeaderboard(int limit) {
+        return standings.values().stream()
+            .sorted(Comparator.comparingInt(Standing::getWins).thenComparingLong(Standing::getPoints).reversed())
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    public Standing getStanding(String name) {
+        return standings.get(name);
+    }
+
+    public AnswerStats getAnswerStats(String category, String answer) {
+        return answerStats.get(category + "\t" + AnswerNormaliser.normalise(answer));
+    }
+
+    public List<AnswerStats> getTopAnswers(String category, int limit) {
+        return answerStats.values().stream()
+            .filter(stats -> stats.category.equals(category))
+            .sorted(Comparator.comparingInt(AnswerStats::getSubmitted).reversed())
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    private void append(String... record) {
+        pending.add(record);
+    }
+
+    private void write() {
+        List<String[]> batch = new ArrayList<>(MAX_BATCH);
+        try(BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            while(true) {
+                batch.add(pending.take());
+                pending.drainTo(batch, MAX_BATCH - 1);
+                boolean closing = false;
+                for(String[] record : batch) {
+                    if(record == CLOSE) {
+                        closing = true;
+                        continue;
+                    }
+                    out.write(escape(record));
+                    out.newLine();
+                }
+                out.flush();
+                batch.stream().filter(record -> record != CLOSE).forEach(this::index);
+                batch.clear();
+                if(closing) {
+                    return;
+                }
+            }
+        } catch(IOException e) {
+            e.printStackTrace();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void index(String[] record) {
+        try {
+            switch(record[0]) {
+                case "G":
+                    if("1".equals(record[4])) {
+                        hostedGames.add(record[1]);
+                    }
+                    break;
+                case "A":
+                    if(hostedGames.contains(record[1]) && Verdict.REVIEW.name().equals(record[6])) {
+                        rulingListener.ruled(record[3], record[5], "1".equals(record[7]));
+                    }
+                    String answer = AnswerNormaliser.normalise(record[5]);
+                    if(!answer.isEmpty()) {
+                        answerStats.merge(record[3] + "\t" + answer,
+                            new AnswerStats(record[3], answer, 1, "1".equals(record[7]) ? 1 : 0), AnswerStats::plus);
+                    }
+                    break;
+                case "S":
+                    standings.merge(record[2], new Standing(record[2], 1, "1".equals(record[4]) ? 1 : 0,
+                        Long.parseLong(record[3])), Standing::plus);
+                    break;
+            }
+        } catch(ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.out.println("Skipping malformed history record: " + String.join(" ", record));
+        }
+    }
+
+    public void close() {
+        pending.add(CLOSE);
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String escape(String[] record) {
+        StringBuilder line = new StringBuilder();
+        for(String field : record) {
+            if(line.length() > 0) {
+                line.append('\t');
+            }
+            for(int i = 0; i < field.length(); i++) {
+                char c = field.charAt(i);
+                switch(c) {
+                    case '\\': line.append("\\\\"); break;
+                    case '\t': line.append("\\t"); break;
+                    case '\n': line.append("\\n"); break;
+                    case '\r': line.append("\\r"); break;
+                    default: line.append(c);
+                }
+            }
+        }
+        return line.toString();
+    }
+
+    private static String[] unescape(String[] fields) {
+        for(int f = 0; f < fields.length; f++) {
+            String field = fields[f];
+            if(field.indexOf('\\') < 0) {
+                continue;
+            }
+            StringBuilder value = new StringBuilder(field.length());
+            for(int i = 0; i < field.length(); i++) {
+                char c = field.charAt(i);
+                if(c == '\\' && i + 1 < field.length()) {
+                    char next = field.charAt(++i);
+                    value.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+                } else {
+                    value.append(c);
+                }
+            }
+            fields[f] = value.toString();
+        }
+        return fields;
+    }
+}
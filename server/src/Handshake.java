@@ -0,0 +1,125 @@
+import java.util.*;
+
+public class Handshake {
+    public static final String BINARY = "binary";
+    public static final String PIPELINE = "pipeline";
+    public static final String STREAM = "stream";
+    public static final String CLOCK = "clock";
+    public static final String RESUME = "resume";
+    private static final Set<String> SUPPORTED_FEATURES =
+        new HashSet<>(Arrays.asList(BINARY, PIPELINE, STREAM, CLOCK, RESUME));
+    private final boolean hello;
+    private final Set<String> features;
+    private final String room;
+    private final String name;
+    private final String token;
+    private final boolean spectator;
+
+    private Handshake(boolean hello, Set<String> features, String room, String name) {
+        this(hello, features, room, name, null, false);
+    }
+
+    private Handshake(boolean hello, Set<String> features, String room, String name, String token,
+                      boolean spectator) {
+        this.hello = hello;
+        this.features = features;
+        this.room = room;
+        this.name = name;
+        this.token = token;
+        this.spectator = spectator;
+    }
+
+    public static Handshake parse(String line) {
+        if(line.startsWith("hello ")) {
+            String[] parts = line.split(" ", 4);
+            if(parts.length < 4 || parts[2].isEmpty() || parts[3].isEmpty()) {
+                return null;
+            }
+            String room = "-".equals(parts[2]) ? RoomRegistry.DEFAULT_ROOM : parts[2];
+            return new Handshake(true, parseFeatures(parts[1]), room, parts[3]);
+        }
+        if(line.startsWith("resume ")) {
+            String token = line.substring(7).trim();
+            if(token.isEmpty()) {
+                return null;
+            }
+            return new Handshake(false, Collections.emptySet(), null, null, token, false);
+        }
+        if(line.startsWith("watch ")) {
+            String room = line.substring(6).trim();
+            if(room.isEmpty()) {
+                return null;
+            }
+            return new Handshake(false, Collections.emptySet(), room, null, null, true);
+        }
+        if(line.startsWith("join ")) {
+            String[] parts = line.split(" ", 3);
+            if(parts.length < 3 || parts[1].isEmpty()) {
+                return null;
+            }
+            return new Handshake(false, Collections.emptySet(), parts[1], parts[2]);
+        }
+        return new Handshake(false, Collections.emptySet(), RoomRegistry.DEFAULT_ROOM, line);
+    }
+
+    static Handshake restore(String features, String room, String name) {
+        return new Handshake(true, parseFeatures(features), room, name);
+    }
+
+    private static Set<String> parseFeatures(String list) {
+        Set<String> features = new LinkedHashSet<>();
+        for(String feature : list.split(",")) {
+            if(SUPPORTED_FEATURES.contains(feature)) {
+                features.add(feature);
+            }
+        }
+        return features;
+    }
+
+    public boolean isHello() {
+        return hello;
+    }
+
+    public boolean isResume() {
+        return token != null;
+    }
+
+    public boolean isSpectator() {
+        return spectator;
+    }
+
+    public boolean hasFeature(String feature) {
+        return features.contains(feature);
+    }
+
+    public String getFeatures() {
+        return features.isEmpty() ? "-" : String.join(",", features);
+    }
+
+    public String getReply(String sessionToken) {
+        String reply = "hello " + getFeatures();
+        return sessionToken == null ? reply : reply + " " + sessionToken;
+    }
+
+    public Protocol getProtocol() {
+        if(!hasFeature(BINARY)) {
+            return Protocol.TEXT;
+        }
+        if(hasFeature(CLOCK)) {
+            return BinaryProtocol.CLOCKED;
+        }
+        return hasFeature(PIPELINE) ? BinaryProtocol.SEQUENCED : BinaryProtocol.BASIC;
+    }
+
+    public String getRoom() {
+        return room;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getToken() {
+        return token;
+    }
+}
@@ -0,0 +1,67 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+public class HeadlessServer implements RoomListener {
+    private final RoomRegistry rooms;
+
+    public HeadlessServer(RoomRegistry rooms) {
+        this.rooms = rooms;
+    }
+
+    @Override
+    public void phaseChanged(Room room, Room.Phase phase) {
+        System.out.println("[" + room.getCode() + "] " + phase);
+    }
+
+    @Override
+    public void gameComplete(Room room) {
+        for(Player player : room.getPlayers()) {
+            System.out.println("[" + room.getCode() + "] " + player.getName() + ": " + player.getScore());
+            player.disconnect();
+        }
+        rooms.remove(room);
+    }
+
+    private static Map<String, String> getOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for(String arg : args) {
+            int equals = arg.indexOf('=');
+            if(arg.startsWith("--") && equals > 2) {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = getOptions(args);
+        ServerContext context = ServerContext.create(options);
+        RoomRegistry rooms = new RoomRegistry(context);
+        rooms.addListener(new HeadlessServer(rooms));
+        String checkpointDir = options.get("checkpoint-dir");
+        Checkpointer checkpointer = null;
+        if(checkpointDir != null) {
+            checkpointer = new Checkpointer(Paths.get(checkpointDir), rooms, context.getScheduler(),
+                context.getMetrics(), Checkpointer.DEFAULT_INTERVAL_MILLIS);
+            checkpointer.restore();
+            checkpointer.start();
+        }
+        Checkpointer activeCheckpointer = checkpointer;
+        ConnectionServer connectionServer = new ConnectionServer(
+            new InetSocketAddress(ServerContext.getPort(options)), rooms::join,
+            ServerContext.getOutboundPolicy(options));
+        connectionServer.exportTo(context.getMetrics());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            connectionServer.close();
+            if(activeCheckpointer != null) {
+                activeCheckpointer.stop();
+            }
+            context.shutdown();
+        }));
+        System.out.println(connectionServer);
+        connectionServer.run();
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class Heartbeat {
+    public static final long DEFAULT_INTERVAL_MILLIS = 5000;
+    public static final int DEFAULT_MAX_MISSED = 4;
+    private final ScheduledExecutorService scheduler;
+    private final long intervalMillis;
+    private final int maxMissed;
+    private final Set<Player> players;
+    private ScheduledFuture<?> task;
+
+    public Heartbeat(long intervalMillis, int maxMissed) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.intervalMillis = intervalMillis;
+        this.maxMissed = maxMissed;
+        players = ConcurrentHashMap.newKeySet();
+    }
+
+    public synchronized void start() {
+        if(task == null) {
+            task = scheduler.scheduleAtFixedRate(this::beat, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if(task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        scheduler.shutdownNow();
+    }
+
+    public void watch(Player player) {
+        players.add(player);
+    }
+
+    public void unwatch(Player player) {
+        players.remove(player);
+    }
+
+    public Liveness assess(long silentMillis) {
+        if(silentMillis <= intervalMillis*2) {
+            return Liveness.ALIVE;
+        }
+        return silentMillis <= intervalMillis*maxMissed ? Liveness.SUSPECT : Liveness.DEAD;
+    }
+
+    private void beat() {
+        long now = System.currentTimeMillis();
+        for(Player player : players) {
+            if(!player.isConnected()) {
+                players.remove(player);
+                continue;
+            }
+            Liveness liveness = assess(now - player.getLastHeard());
+            if(liveness != player.getLiveness()) {
+                System.out.println(player.getName() + " is " + liveness);
+                player.setLiveness(liveness);
+            }
+            if(liveness == Liveness.DEAD) {
+                players.remove(player);
+                player.disconnect();
+            } else {
+                player.probe();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Histogram {
+    private static final double[] BOUNDS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60
+    };
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder sumNanos;
+    private final LongAccumulator maxNanos;
+
+    public Histogram() {
+        buckets = new LongAdder[BOUNDS.length + 1];
+        for(int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        count = new LongAdder();
+        sumNanos = new LongAdder();
+        maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    public void record(long nanos) {
+        double seconds = nanos/1e9;
+        int bucket = 0;
+        while(bucket < BOUNDS.length && seconds > BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSumSeconds() {
+        return sumNanos.sum()/1e9;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get()/1e6;
+    }
+
+    public double getMeanMillis() {
+        long n = getCount();
+        return n == 0 ? 0 : sumNanos.sum()/1e6/n;
+    }
+
+    // Upper bound of the bucket holding the given quantile, so percentiles are only as fine as the buckets.
+    public double getPercentileMillis(double quantile) {
+        long n = getCount();
+        if(n == 0) {
+            return 0;
+        }
+        long rank = (long)Math.ceil(quantile*n);
+        long seen = 0;
+        for(int i = 0; i < BOUNDS.length; i++) {
+            seen += buckets[i].sum();
+            if(seen >= rank) {
+                return Math.min(BOUNDS[i]*1000, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    void render(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for(int i = 0; i < BOUNDS.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(name).append("_bucket{").append(prefix).append("le=\"").append(BOUNDS[i]).append("\"} ")
+                .append(cumulative).append('\n');
+        }
+        cumulative += buckets[BOUNDS.length].sum();
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+        out.append(name).append("_sum").append(suffix).append(getSumSeconds()).append('\n');
+        out.append(name).append("_count").append(suffix).append(cumulative).append('\n');
+    }
+}
@@ -0,0 +1,9 @@
+public class LetterValidator implements Validator {
+    @Override
+    public Verdict validate(String category, char letter, String answer) {
+        if(answer.isEmpty() || Character.toUpperCase(answer.charAt(0)) != letter) {
+            return Verdict.REJECT;
+        }
+        return Verdict.REVIEW;
+    }
+}
@@ -0,0 +1,3 @@
+public enum Liveness {
+    ALIVE, SUSPECT, DEAD
+}
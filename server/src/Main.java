@@ -3,6 +3,7 @@ import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.geometry.HPos;
+import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -14,19 +15,15 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Paint;
 import javafx.stage.Stage;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
 import java.util.*;
 import java.util.stream.Collectors;
 
-public class Main extends Application {
-    private static final Random RGEN = new Random();
-    private static final int NUM_ROUNDS = 3;
-    private static final int NUM_CATEGORIES = 12;
+public class Main extends Application implements RoomListener {
+    private static final int LEADERBOARD_SIZE = 10;
+    private static final String WAITING_TEXT = "Waiting for players to connect...";
+    private static final String REVIEW_KEYS_TEXT = "A: accept   R: reject   Space: toggle   Ctrl-A: select all";
     private BorderPane root;
     private MenuBar menuBar;
     private Menu viewMenu;
@@ -35,16 +32,24 @@ public class Main extends Application {
     private CentralPane initialPane;
     private Label initialTitle;
     private Button initialButton;
-    private ServerSocket serverSocket;
-    private List<Player> players;
-    private int roundNum;
-    private List<String> categories;
-    private char letter;
+    private ConnectionServer connectionServer;
+    private RoomRegistry rooms;
+    private Room room;
+    private ServerContext context;
+    private Label statusLabel;
+    private Button startCountdownButton;
+    private BorderPane reviewPane;
+    private Label reviewTitle;
+    private ReviewGrid reviewGrid;
 
     @Override
     public void start(Stage primaryStage) throws Exception {
         stage = primaryStage;
-        players = new ArrayList<>();
+        context = ServerContext.create(getParameters().getNamed());
+        rooms = new RoomRegistry(context);
+        room = rooms.getOrCreate(RoomRegistry.DEFAULT_ROOM);
+        room.setHosted(true);
+        room.addListener(this);
 
         fullscreenItem = new MenuItem("Fullscreen");
         fullscreenItem.setAccelerator(new KeyCodeCombination(KeyCode.F, KeyCombination.CONTROL_DOWN));
@@ -80,7 +85,8 @@ public class Main extends Application {
         primaryStage.setFullScreenExitHint("Ctrl-F");
         primaryStage.setFullScreenExitKeyCombination(KeyCombination.NO_MATCH);
         primaryStage.setOnCloseRequest(event -> {
-            closeServerSocket();
+            closeConnectionServer();
+            context.shutdown();
             System.exit(0);
         });
         primaryStage.show();
@@ -90,7 +96,8 @@ public class Main extends Application {
         FlowPane startGamePane = new FlowPane(Orientation.VERTICAL, 20, 20);
         startGamePane.setAlignment(Pos.CENTER);
         startGamePane.setColumnHalignment(HPos.CENTER);
-        Label statusLabel = new DefaultLabel("Establishing a server on port 4444");
+        int port = ServerContext.getPort(getParameters().getNamed());
+        statusLabel = new DefaultLabel("Establishing a server on port " + port);
         ProgressBar progressBar = new ProgressBar();
         Button readyButton = new DefaultButton("Begin game");
         readyButton.setDisable(true);
@@ -100,8 +107,11 @@ public class Main extends Application {
         new Thread(new Task<Void>() {
             @Override
             protected Void call() throws Exception {
-                serverSocket = new ServerSocket();
-                serverSocket.bind(new InetSocketAddress(InetAddress.getLocalHost().getHostName(), 4444));
+                connectionServer = new ConnectionServer(
+                    new InetSocketAddress(InetAddress.getLocalHost().getHostName(), port), rooms::join,
+                    ServerContext.getOutboundPolicy(getParameters().getNamed()));
+                connectionServer.start();
+                connectionServer.exportTo(context.getMetrics());
                 return null;
             }
 
@@ -117,214 +127,110 @@ public class Main extends Application {
 
             @Override
             protected void succeeded() {
-                System.out.println(serverSocket);
-                String baseWaitingText = "Waiting for players to connect...";
-                Task<Void> acceptPlayers = new Task<Void>() {
-                    @Override
-                    protected Void call() throws Exception {
-                        while(!isCancelled()) {
-                            Player player = new Player(serverSocket.accept());
-                            players.add(player);
-                            Platform.runLater(() -> statusLabel.setText(baseWaitingText + String.join(", ",
-                                players.stream().map(Player::getName).collect(Collectors.toList()))));
-                        }
-                        return null;
-                    }
-
-                    @Override
-                    protected void failed() {
-                        getException().printStackTrace();
-                    }
-                };
-                new Thread(acceptPlayers).start();
-                statusLabel.setText(baseWaitingText);
+                System.out.println(connectionServer);
+                statusLabel.setText(WAITING_TEXT + playerNames());
                 readyButton.setDisable(false);
                 readyButton.setOnAction(event -> {
                     readyButton.setDisable(true);
-                    acceptPlayers.cancel(true);
                     statusLabel.setText("Starting game...");
-                    new Thread(new Task<Void>() {
-                        @Override
-                        protected Void call() throws Exception {
-                            for(Iterator<Player> it = players.iterator(); it.hasNext();) {
-                                if(!it.next().isAlive()) {
-                                    it.remove();
-                                }
-                            }
-                            return null;
-                        }
-
-                        @Override
-                        protected void succeeded() {
-                            statusLabel.setText(baseWaitingText + String.join(", ",
-                                players.stream().map(Player::getName).collect(Collectors.toList())));
-                            startRounds();
-                        }
-
-                        @Override
-                        protected void failed() {
-                            getException().printStackTrace();
-                        }
-                    }).start();
+                    room.beginGame();
                 });
             }
         }).start();
     }
 
-    private void startRounds() {
-        players.forEach(Player::resetScore);
-        roundNum = 0;
-        startRound();
+    private String playerNames() {
+        return String.join(", ", room.getPlayers().stream().map(Player::getName).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void playersChanged(Room room) {
+        Platform.runLater(() -> {
+            if(statusLabel != null && room.getPhase() == Room.Phase.LOBBY) {
+                statusLabel.setText(WAITING_TEXT + playerNames());
+            }
+        });
+    }
+
+    @Override
+    public void phaseChanged(Room room, Room.Phase phase) {
+        switch(phase) {
+            case CATEGORIES:
+                Platform.runLater(this::startRound);
+                break;
+            case LETTER:
+                Platform.runLater(() -> startCountdownButton.setDisable(false));
+                break;
+        }
     }
 
     private void startRound() {
-        Button startCountdownButton = new DefaultButton("Start");
+        startCountdownButton = new DefaultButton("Start");
         root.setCenter(startCountdownButton);
         startCountdownButton.setDefaultButton(true);
         startCountdownButton.setDisable(true);
         startCountdownButton.setOnAction(event -> {
-            getLetter();
-            new Thread(new Task<Void>() {
-                @Override
-                protected Void call() throws Exception {
-                    for(Iterator<Player> it = players.iterator(); it.hasNext();) {
-                        if(!it.next().sendLetter(letter)) {
-                            it.remove();
-                        }
-                    }
-                    return null;
-                }
-
-                @Override
-                protected void succeeded() {
-                    root.setCenter(new Countdown(180) {
-                        @Override
-                        protected void onComplete() {
-                            roundComplete();
-                        }
-                    });
-                }
-
-                @Override
-                protected void failed() {
-                    getException().printStackTrace();
-                }
-            }).start();
+            startCountdownButton.setDisable(true);
+            room.revealLetter();
         });
-        new Thread(new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                getCategories();
-                for(Iterator<Player> it = players.iterator(); it.hasNext();) {
-                    if(!it.next().sendCategories(categories)) {
-                        it.remove();
-                    }
-                }
-                return null;
-            }
-
-            @Override
-            protected void succeeded() {
-                startCountdownButton.setDisable(false);
-            }
+    }
 
-            @Override
-            protected void failed() {
-                getException().printStackTrace();
-            }
-        }).start();
+    @Override
+    public void countdownStarted(Room room, long deadline) {
+        Platform.runLater(() -> root.setCenter(new Countdown(deadline)));
     }
 
-    private void getLetter() {
-        letter = (char)('A' + RGEN.nextInt(26));
+    @Override
+    public void scoring(Room room, ScoreSheet sheet) {
+        Platform.runLater(() -> review(sheet));
     }
 
-    private void getCategories() throws IOException {
-        BufferedReader br = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream("categories.txt")));
-        List<String> allCategories = new ArrayList<>();
-        String line;
-        while((line = br.readLine()) != null) {
-            allCategories.add(line);
+    private void review(ScoreSheet sheet) {
+        if(reviewPane == null) {
+            createReviewPane();
         }
-        int numCategories = Math.min(allCategories.size(), NUM_CATEGORIES);
-        categories = new ArrayList<>();
-        for(int i = 0; i < numCategories; i++) {
-            categories.add(allCategories.remove(RGEN.nextInt(allCategories.size())));
+        reviewGrid.show(sheet);
+        if(reviewGrid.isEmpty()) {
+            room.submitScores(reviewGrid.commit());
+            return;
         }
+        reviewTitle.setText("Review answers for " + sheet.getLetter() + " (" + reviewGrid.getItems().size() + ")");
+        root.setCenter(reviewPane);
+        reviewGrid.requestFocus();
     }
 
-    private void roundComplete() {
-        new Thread(new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                for(Iterator<Player> it = players.iterator(); it.hasNext();) {
-                    if(!it.next().requestAnswers()) {
-                        it.remove();
-                    }
-                }
-                return null;
-            }
-
-            @Override
-            protected void succeeded() {
-                scoreAnswers();
-            }
-
-            @Override
-            protected void failed() {
-                getException().printStackTrace();
-            }
-        }).start();
-    }
-
-    private void scoreAnswers() {
-        scoreAnswer(0);
+    private void createReviewPane() {
+        reviewTitle = new DefaultLabel(24);
+        reviewGrid = new ReviewGrid();
+        Button scoreButton = new DefaultButton("Score");
+        scoreButton.setDefaultButton(true);
+        scoreButton.setOnAction(event -> room.submitScores(reviewGrid.commit()));
+        VBox bottom = new VBox(10, new DefaultLabel(REVIEW_KEYS_TEXT, 16), scoreButton);
+        bottom.setAlignment(Pos.CENTER);
+        reviewPane = new BorderPane(reviewGrid, reviewTitle, null, bottom, null);
+        reviewPane.setPadding(new Insets(20));
+        BorderPane.setAlignment(reviewTitle, Pos.CENTER);
     }
 
-    private void scoreAnswer(int ans) {
-        CentralPane pane = new CentralPane();
-        String category = categories.get(ans);
-        pane.getChildren().add(new DefaultLabel("#" + (ans + 1) + " - " + category));
-        Map<CheckBox, Player> playerBoxes = new HashMap<>();
-        for(Player player : players) {
-            String answer = player.getAnswer(ans);
-            CheckBox box = new CheckBox(player.getName() + " - " + (answer.isEmpty() ? "<no answer>" : answer));
-            box.setTextFill(Paint.valueOf("white"));
-            box.setStyle("-fx-font-size: 18px;");
-            char firstLetter = answer.isEmpty() ? 0 : answer.charAt(0);
-            if(answer.isEmpty() || (firstLetter != letter && (firstLetter - ('a'-'A') != letter))) {
-                box.setDisable(true);
-            }
-            playerBoxes.put(box, player);
-            pane.getChildren().add(box);
-        }
-        Button scoreButton = new Button("Score");
-        scoreButton.setDefaultButton(true);
-        scoreButton.setOnAction(event -> {
-            for(CheckBox box : playerBoxes.keySet()) {
-                if(box.isSelected()) {
-                    playerBoxes.get(box).incrementScore();
-                }
-            }
-            if(ans + 1 < categories.size()) {
-                scoreAnswer(ans + 1);
-            } else if(roundNum >= NUM_ROUNDS - 1) {
-                gameComplete();
-            } else {
-                roundNum++;
-                startRound();
-            }
-        });
-        pane.getChildren().add(scoreButton);
-        root.setCenter(pane);
+    @Override
+    public void gameComplete(Room room) {
+        Platform.runLater(this::gameComplete);
     }
 
     private void gameComplete() {
         CentralPane pane = new CentralPane();
         pane.getChildren().add(new DefaultLabel("Scores"));
-        for(Player player : players) {
+        for(Player player : room.getPlayers()) {
             pane.getChildren().add(new DefaultLabel(player.getName() + ": " + player.getScore(), 20));
         }
+        List<GameHistory.Standing> leaderboard = context.getHistory().getLeaderboard(LEADERBOARD_SIZE);
+        if(!leaderboard.isEmpty()) {
+            pane.getChildren().add(new DefaultLabel("Season", 24));
+            for(GameHistory.Standing standing : leaderboard) {
+                pane.getChildren().add(new DefaultLabel(standing.getName() + ": " + standing.getWins() + " wins, "
+                    + standing.getPoints() + " points in " + standing.getGames() + " games", 16));
+            }
+        }
         root.setCenter(pane);
     }
 
@@ -333,13 +239,9 @@ public class Main extends Application {
         Platform.runLater(() -> root.setTop(stage.isFullScreen() ? null: menuBar));
     }
 
-    private void closeServerSocket() {
-        if(serverSocket != null) {
-            try {
-                serverSocket.close();
-            } catch(IOException e) {
-                e.printStackTrace();
-            }
+    private void closeConnectionServer() {
+        if(connectionServer != null) {
+            connectionServer.close();
         }
     }
 
@@ -0,0 +1,190 @@
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class Metrics implements DynamicMBean {
+    private static final String OBJECT_NAME = "scattergories:type=Metrics";
+    private final ConcurrentMap<String, LongAdder> counters;
+    private final ConcurrentMap<String, LongSupplier> counterFunctions;
+    private final ConcurrentMap<String, LongSupplier> gauges;
+    private final ConcurrentMap<String, Histogram> histograms;
+    private HttpServer httpServer;
+
+    public Metrics() {
+        counters = new ConcurrentHashMap<>();
+        counterFunctions = new ConcurrentHashMap<>();
+        gauges = new ConcurrentHashMap<>();
+        histograms = new ConcurrentHashMap<>();
+    }
+
+    public static String labelled(String name, String label, String value) {
+        return name + "{" + label + "=\"" + value + "\"}";
+    }
+
+    public void increment(String name, long delta) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+    }
+
+    public void counter(String name, LongSupplier value) {
+        counterFunctions.put(name, value);
+    }
+
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    public void observe(String name, long nanos) {
+        histogram(name).record(nanos);
+    }
+
+    public String render() {
+        StringBuilder out = new StringBuilder();
+        Set<String> typed = new HashSet<>();
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, value) -> counterValues.put(name, value.sum()));
+        counterFunctions.forEach((name, value) -> counterValues.put(name, value.getAsLong()));
+        counterValues.forEach((name, value) -> {
+            declare(out, typed, name, "counter");
+            out.append(name).append(' ').append(value).append('\n');
+        });
+        new TreeMap<>(gauges).forEach((name, value) -> {
+            declare(out, typed, name, "gauge");
+            out.append(name).append(' ').append(value.getAsLong()).append('\n');
+        });
+        new TreeMap<>(histograms).forEach((name, histogram) -> {
+            declare(out, typed, name, "histogram");
+            histogram.render(out, baseName(name), labels(name));
+        });
+        return out.toString();
+    }
+
+    private static void declare(StringBuilder out, Set<String> typed, String name, String type) {
+        String base = baseName(name);
+        if(typed.add(base)) {
+            out.append("# TYPE ").append(base).append(' ').append(type).append('\n');
+        }
+    }
+
+    private static String baseName(String name) {
+        int brace = name.indexOf('{');
+        return brace < 0 ? name : name.substring(0, brace);
+    }
+
+    private static String labels(String name) {
+        int brace = name.indexOf('{');
+        return brace < 0 ? "" : name.substring(brace + 1, name.length() - 1);
+    }
+
+    public void serve(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext("/metrics", exchange -> {
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try(OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        httpServer.start();
+        System.out.println("Metrics on http://" + httpServer.getAddress().getHostString() + ":"
+            + httpServer.getAddress().getPort() + "/metrics");
+    }
+
+    public void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch(JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void shutdown() {
+        if(httpServer != null) {
+            httpServer.stop(0);
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch(JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Map<String, Object> attributes() {
+        Map<String, Object> attributes = new TreeMap<>();
+        counters.forEach((name, value) -> attributes.put(name, value.sum()));
+        counterFunctions.forEach((name, value) -> attributes.put(name, value.getAsLong()));
+        gauges.forEach((name, value) -> attributes.put(name, value.getAsLong()));
+        histograms.forEach((name, histogram) -> {
+            attributes.put(name + ".count", histogram.getCount());
+            attributes.put(name + ".meanMillis", histogram.getMeanMillis());
+            attributes.put(name + ".p50Millis", histogram.getPercentileMillis(0.5));
+            attributes.put(name + ".p99Millis", histogram.getPercentileMillis(0.99));
+            attributes.put(name + ".maxMillis", histogram.getMaxMillis());
+        });
+        return attributes;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Object value = attributes().get(attribute);
+        if(value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        Map<String, Object> attributes = attributes();
+        AttributeList list = new AttributeList();
+        for(String name : names) {
+            if(attributes.containsKey(name)) {
+                list.add(new Attribute(name, attributes.get(name)));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException {
+        throw new MBeanException(new UnsupportedOperationException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> infos = new ArrayList<>();
+        attributes().forEach((name, value) -> infos.add(new MBeanAttributeInfo(name, value.getClass().getName(), name,
+            true, false, false)));
+        return new MBeanInfo(getClass().getName(), "Scattergories server metrics",
+            infos.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+}
@@ -0,0 +1,43 @@
+import java.util.Locale;
+
+public class OutboundPolicy {
+    public enum Overflow { DROP, DISCONNECT, BLOCK }
+
+    public static final long DEFAULT_LIMIT_BYTES = 1 << 20;
+    public static final long DEFAULT_BLOCK_MILLIS = 2000;
+    public static final OutboundPolicy DEFAULT =
+        new OutboundPolicy(DEFAULT_LIMIT_BYTES, Overflow.DISCONNECT, DEFAULT_BLOCK_MILLIS);
+    private final long limitBytes;
+    private final Overflow overflow;
+    private final long blockMillis;
+
+    public OutboundPolicy(long limitBytes, Overflow overflow, long blockMillis) {
+        this.limitBytes = limitBytes;
+        this.overflow = overflow;
+        this.blockMillis = blockMillis;
+    }
+
+    public static OutboundPolicy parse(String overflow, String limitBytes, String blockMillis) {
+        return new OutboundPolicy(
+            limitBytes == null ? DEFAULT_LIMIT_BYTES : Long.parseLong(limitBytes),
+            overflow == null ? DEFAULT.overflow : Overflow.valueOf(overflow.toUpperCase(Locale.ROOT)),
+            blockMillis == null ? DEFAULT_BLOCK_MILLIS : Long.parseLong(blockMillis));
+    }
+
+    public long getLimitBytes() {
+        return limitBytes;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    public long getBlockMillis() {
+        return blockMillis;
+    }
+
+    @Override
+    public String toString() {
+        return overflow + " above " + limitBytes + " bytes";
+    }
+}
@@ -1,83 +1,356 @@
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.Socket;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 public class Player {
-    private PrintWriter out;
-    private BufferedReader in;
-    private Socket socket;
+    private static final long DRAFT_GRACE_MILLIS = 1000;
+    private static final SecureRandom TOKENS = new SecureRandom();
+    private static final AtomicInteger IDS = new AtomicInteger();
+    private final int id;
+    private volatile Connection connection;
+    private final Handshake handshake;
+    private final String sessionToken;
+    private Protocol protocol;
+    private boolean pipelined;
+    private boolean streaming;
+    private boolean clockSync;
     private String name;
     private int score;
     private int numCategories;
     private List<String> answers;
+    private String[] drafts;
+    private int draftRound;
+    private boolean answersFrozen;
+    private long draftDeadline;
+    private volatile Liveness liveness;
+    private volatile CompletableFuture<Boolean> commit;
+    private CompletableFuture<Boolean> probe;
+    private boolean collecting;
+    private final AtomicInteger lastSeq;
+    private final Map<Integer, CompletableFuture<Boolean>> pendingAcks;
+    private final Queue<CompletableFuture<Boolean>> orderedAcks;
 
-    public Player(Socket socket) throws IOException {
-        this.socket = socket;
+    public Player(Connection connection, Handshake handshake) {
+        this.connection = connection;
+        this.handshake = handshake;
+        id = IDS.incrementAndGet();
+        sessionToken = handshake.hasFeature(Handshake.RESUME) ? new BigInteger(128, TOKENS).toString(36) : null;
+        name = handshake.getName();
+        protocol = handshake.getProtocol();
+        pipelined = handshake.hasFeature(Handshake.PIPELINE);
+        streaming = handshake.hasFeature(Handshake.STREAM);
+        clockSync = handshake.hasFeature(Handshake.CLOCK);
+        liveness = Liveness.ALIVE;
         answers = new ArrayList<>();
-        out = new PrintWriter(socket.getOutputStream(), true);
-        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-        name = in.readLine();
+        drafts = new String[0];
+        draftRound = -1;
+        lastSeq = new AtomicInteger();
+        pendingAcks = new ConcurrentHashMap<>();
+        orderedAcks = new ConcurrentLinkedQueue<>();
+        bind(connection);
+    }
+
+    public Player(Handshake handshake, String sessionToken, int score, int draftRound, String[] drafts) {
+        this.handshake = handshake;
+        this.sessionToken = sessionToken;
+        this.score = score;
+        this.draftRound = draftRound;
+        this.drafts = drafts.clone();
+        id = IDS.incrementAndGet();
+        name = handshake.getName();
+        protocol = handshake.getProtocol();
+        pipelined = handshake.hasFeature(Handshake.PIPELINE);
+        streaming = handshake.hasFeature(Handshake.STREAM);
+        clockSync = handshake.hasFeature(Handshake.CLOCK);
+        liveness = Liveness.DEAD;
+        answers = new ArrayList<>();
+        numCategories = drafts.length;
+        draftDeadline = Long.MAX_VALUE;
+        lastSeq = new AtomicInteger();
+        pendingAcks = new ConcurrentHashMap<>();
+        orderedAcks = new ConcurrentLinkedQueue<>();
+    }
+
+    static Player replayed(String room, String name, int round, String[] answers) {
+        return new Player(Handshake.restore("-", room, name), null, 0, round, answers);
+    }
+
+    private void bind(Connection bound) {
+        bound.setLineHandler(this::handleLine);
+        bound.setCloseHandler(() -> {
+            if(bound != connection) {
+                return;
+            }
+            failPendingAcks();
+            CompletableFuture<Boolean> pendingCommit = commit;
+            if(pendingCommit != null) {
+                pendingCommit.complete(false);
+            }
+        });
+    }
+
+    public void attach(Connection resumed) {
+        if(connection != null) {
+            connection.close();
+        }
+        connection = resumed;
+        liveness = Liveness.ALIVE;
+        bind(resumed);
+        resumed.send(getReply());
+    }
+
+    public String getReply() {
+        return handshake.getReply(sessionToken);
+    }
+
+    public String getFeatures() {
+        return handshake.getFeatures();
+    }
+
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
+    public int getId() {
+        return id;
     }
 
     public String getName() {
         return name;
     }
 
-    public boolean isAlive() {
-        return queryPlayer("alive");
+    public CompletableFuture<Boolean> checkAlive() {
+        return request(seq -> protocol.query(seq, "alive"));
+    }
+
+    public synchronized void probe() {
+        if(probe != null && !probe.isDone()) {
+            // Legacy clients match acks by order, so their outstanding probe can't be withdrawn.
+            if(!pipelined) {
+                return;
+            }
+            probe.cancel(false);
+        }
+        // A legacy query sent during answer collection would swallow one of the answers.
+        if(!collecting) {
+            probe = checkAlive();
+        }
     }
 
     public void resetScore() {
         score = 0;
     }
 
-    public boolean sendCategories(List<String> categories) {
-        out.println("categories");
-        out.println(numCategories = categories.size());
-        for(String category : categories) {
-            out.println(category);
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    public boolean isConnected() {
+        return connection != null && !connection.isClosed();
+    }
+
+    public long getLastHeard() {
+        return connection == null ? 0 : connection.getLastRead();
+    }
+
+    public Liveness getLiveness() {
+        return liveness;
+    }
+
+    public void setLiveness(Liveness liveness) {
+        this.liveness = liveness;
+    }
+
+    public CompletableFuture<Boolean> sendCategories(int roundNum, List<String> categories) {
+        resetDrafts(roundNum, categories.size());
+        return request(seq -> protocol.categories(seq, roundNum, Room.NUM_ROUNDS, Room.ROUND_SECONDS, categories));
+    }
+
+    public CompletableFuture<Boolean> sendResume(int roundNum, List<String> categories, char letter, long deadline) {
+        List<String> currentDrafts;
+        synchronized(this) {
+            if(draftRound != roundNum || drafts.length != categories.size()) {
+                resetDrafts(roundNum, categories.size());
+            }
+            if(deadline > 0) {
+                draftDeadline = deadline + DRAFT_GRACE_MILLIS;
+            }
+            currentDrafts = new ArrayList<>(Arrays.asList(drafts));
         }
-        return queryPlayer("received");
+        return request(seq -> protocol.resume(seq, roundNum, Room.NUM_ROUNDS, categories, letter, deadline,
+            currentDrafts));
     }
 
-    private boolean queryPlayer(String query) {
-        out.println(query + "?");
-        try {
-            return "yes".equals(in.readLine());
-        } catch(IOException e) {
-            return false;
+    private synchronized void resetDrafts(int roundNum, int count) {
+        numCategories = count;
+        drafts = new String[count];
+        Arrays.fill(drafts, "");
+        draftRound = roundNum;
+        answersFrozen = false;
+        draftDeadline = Long.MAX_VALUE;
+    }
+
+    public CompletableFuture<Boolean> sendLetter(char letter, long deadline) {
+        synchronized(this) {
+            draftDeadline = deadline + DRAFT_GRACE_MILLIS;
         }
+        return request(seq -> protocol.letter(seq, letter, clockSync ? deadline : 0));
     }
 
-    public boolean sendLetter(char letter) {
-        out.println("letter");
-        out.println(letter);
-        return queryPlayer("received");
+    private CompletableFuture<Boolean> request(IntFunction<ByteBuffer> message) {
+        CompletableFuture<Boolean> ack = new CompletableFuture<>();
+        if(pipelined) {
+            int seq = lastSeq.incrementAndGet();
+            pendingAcks.put(seq, ack);
+            ack.whenComplete((acknowledged, e) -> pendingAcks.remove(seq, ack));
+            connection.send(message.apply(seq));
+        } else {
+            orderedAcks.add(ack);
+            connection.send(message.apply(0));
+        }
+        if(connection.isClosed()) {
+            failPendingAcks();
+        }
+        return ack;
     }
 
-    public boolean requestAnswers() {
-        out.println("answers");
-        answers = new ArrayList<>();
-        for(int i = 0; i < numCategories; i++) {
+    private boolean handleLine(String line) {
+        if(clockSync && line.startsWith("ping ")) {
             try {
-                String answer = in.readLine();
-                if(answer == null) {
-                    return false;
-                } else {
-                    answers.add(answer);
-                }
-            } catch(IOException e) {
-                e.printStackTrace();
+                connection.send(protocol.pong(Long.parseLong(line.substring(5).trim()), System.currentTimeMillis()));
+            } catch(NumberFormatException e) {
+                System.out.println("Malformed ping from " + name + ": " + line);
+            }
+            return true;
+        }
+        if(streaming && line.startsWith("draft ")) {
+            updateDraft(line);
+            return true;
+        }
+        if(streaming && line.equals("commit")) {
+            CompletableFuture<Boolean> pendingCommit = commit;
+            if(pendingCommit != null) {
+                pendingCommit.complete(true);
+            }
+            return true;
+        }
+        if(pipelined) {
+            if(!line.startsWith("ack ")) {
                 return false;
             }
+            try {
+                CompletableFuture<Boolean> ack = pendingAcks.remove(Integer.parseInt(line.substring(4).trim()));
+                if(ack != null) {
+                    ack.complete(true);
+                }
+            } catch(NumberFormatException e) {
+                System.out.println("Malformed ack from " + name + ": " + line);
+            }
+            return true;
         }
+        CompletableFuture<Boolean> ack = orderedAcks.poll();
+        if(ack == null) {
+            return false;
+        }
+        ack.complete("yes".equals(line));
         return true;
     }
 
+    private synchronized void updateDraft(String line) {
+        String[] parts = line.split(" ", 3);
+        try {
+            int index = Integer.parseInt(parts[1]);
+            if(!answersFrozen && System.currentTimeMillis() <= draftDeadline && index >= 0 && index < drafts.length) {
+                drafts[index] = parts.length > 2 ? parts[2].trim() : "";
+            }
+        } catch(NumberFormatException e) {
+            System.out.println("Malformed draft from " + name + ": " + line);
+        }
+    }
+
+    public CompletableFuture<Boolean> commitAnswers() {
+        commit = new CompletableFuture<>();
+        connection.send(protocol.answers());
+        if(connection.isClosed()) {
+            commit.complete(false);
+        }
+        return commit;
+    }
+
+    public synchronized int getDraftRound() {
+        return draftRound;
+    }
+
+    public synchronized String[] getDrafts() {
+        return drafts.clone();
+    }
+
+    public synchronized void freezeAnswers() {
+        answersFrozen = true;
+        answers = new ArrayList<>(Arrays.asList(drafts));
+    }
+
+    public int getOutstandingAcks() {
+        return pendingAcks.size() + orderedAcks.size();
+    }
+
+    private void failPendingAcks() {
+        pendingAcks.values().forEach(ack -> ack.complete(false));
+        pendingAcks.clear();
+        CompletableFuture<Boolean> ack;
+        while((ack = orderedAcks.poll()) != null) {
+            ack.complete(false);
+        }
+    }
+
+    public boolean requestAnswers(long deadline) {
+        synchronized(this) {
+            collecting = true;
+            connection.send(protocol.answers());
+        }
+        try {
+            answers = new ArrayList<>();
+            for(int i = 0; i < numCategories; i++) {
+                try {
+                    long remaining = deadline - System.currentTimeMillis();
+                    String answer = remaining > 0 ? connection.readLine(remaining) : null;
+                    if(answer == null) {
+                        return false;
+                    } else {
+                        answers.add(answer);
+                    }
+                } catch(InterruptedException e) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            synchronized(this) {
+                collecting = false;
+            }
+        }
+    }
+
+    public void disconnect() {
+        if(connection != null) {
+            connection.close();
+        }
+    }
+
     public String getAnswer(int ans) {
         return answers.get(ans);
     }
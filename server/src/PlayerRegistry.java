@@ -0,0 +1,83 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class PlayerRegistry {
+    private final Map<Integer, Player> players;
+    private final List<Listener> listeners;
+    private volatile List<Player> snapshot;
+
+    public interface Listener {
+        default void playerJoined(Player player) {}
+
+        default void playerLeft(Player player) {}
+    }
+
+    public PlayerRegistry() {
+        players = new ConcurrentHashMap<>();
+        listeners = new CopyOnWriteArrayList<>();
+        snapshot = Collections.emptyList();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean add(Player player) {
+        synchronized(this) {
+            if(players.putIfAbsent(player.getId(), player) != null) {
+                return false;
+            }
+            List<Player> next = new ArrayList<>(snapshot);
+            next.add(player);
+            snapshot = Collections.unmodifiableList(next);
+        }
+        listeners.forEach(listener -> listener.playerJoined(player));
+        return true;
+    }
+
+    public boolean remove(Player player) {
+        synchronized(this) {
+            if(!players.remove(player.getId(), player)) {
+                return false;
+            }
+            List<Player> next = new ArrayList<>(snapshot);
+            next.remove(player);
+            snapshot = Collections.unmodifiableList(next);
+        }
+        listeners.forEach(listener -> listener.playerLeft(player));
+        return true;
+    }
+
+    public void removeAll(Collection<Player> removed) {
+        removed.forEach(this::remove);
+    }
+
+    public Player get(int id) {
+        return players.get(id);
+    }
+
+    public boolean contains(Player player) {
+        return players.get(player.getId()) == player;
+    }
+
+    public List<Player> snapshot() {
+        return snapshot;
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    public boolean isEmpty() {
+        return snapshot.isEmpty();
+    }
+}
@@ -0,0 +1,19 @@
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public interface Protocol {
+    Protocol TEXT = new TextProtocol();
+
+    ByteBuffer query(int seq, String query);
+
+    ByteBuffer categories(int seq, int roundNum, int numRounds, int roundSeconds, List<String> categories);
+
+    ByteBuffer letter(int seq, char letter, long deadline);
+
+    ByteBuffer resume(int seq, int roundNum, int numRounds, List<String> categories, char letter, long deadline,
+                      List<String> drafts);
+
+    ByteBuffer pong(long clientTime, long serverTime);
+
+    ByteBuffer answers();
+}
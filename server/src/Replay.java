@@ -0,0 +1,339 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Replay {
+    private final String room;
+    private final RoundScheduler roundScheduler;
+    private final Validator validator;
+    private final DuplicateDetector duplicateDetector;
+    private final Map<Integer, String> names;
+    private final Map<Integer, Integer> scores;
+    private final List<String> mismatches;
+    private long seed;
+    private long started;
+    private String phase;
+    private int roundNum;
+    private List<String> categories;
+    private char letter;
+    private RoundScheduler.Deck deck;
+    private int dealtRound;
+    private List<String> dealtCategories;
+    private int letterRound;
+    private char dealtLetter;
+
+    public Replay(String room, RoundScheduler roundScheduler, Validator validator,
+                  DuplicateDetector duplicateDetector) {
+        this.room = room;
+        this.roundScheduler = roundScheduler;
+        this.validator = validator;
+        this.duplicateDetector = duplicateDetector;
+        names = new HashMap<>();
+        scores = new LinkedHashMap<>();
+        mismatches = new ArrayList<>();
+        categories = new ArrayList<>();
+        phase = Room.Phase.LOBBY.name();
+    }
+
+    public void apply(GameEvent event) {
+        switch(event.getType()) {
+            case START:
+                start(event);
+                break;
+            case JOIN:
+                names.put(event.getInt(0), event.get(1));
+                scores.putIfAbsent(event.getInt(0), 0);
+                print(event, event.get(1) + " joined during " + phase);
+                break;
+            case LEAVE:
+                print(event, name(event.getInt(0)) + " left during " + phase);
+                break;
+            case PHASE:
+                phase = event.get(0);
+                break;
+            case CATEGORIES:
+                roundNum = event.getInt(0);
+                categories = new ArrayList<>();
+                for(int i = 1; i < event.size(); i++) {
+                    categories.add(event.get(i));
+                }
+                if(deck != null) {
+                    if(dealtRound != roundNum) {
+                        dealtCategories = deck.nextCategories(Room.NUM_CATEGORIES);
+                        dealtRound = roundNum;
+                    }
+                    if(!dealtCategories.equals(categories)) {
+                        mismatch(event, "deal mismatch in round " + (roundNum + 1) + ": logged categories "
+                            + categories + ", re-dealt " + dealtCategories);
+                    }
+                }
+                break;
+            case LETTER:
+                letter = event.get(0).charAt(0);
+                checkLetter(event);
+                print(event, "round " + (roundNum + 1) + " letter " + letter + ", "
+                    + categories.size() + " categories");
+                break;
+            case ROUND:
+                scoreRound(event);
+                break;
+            case SNAPSHOT:
+                check(event, "after round " + (roundNum + 1));
+                break;
+            case COMPLETE:
+                check(event, "at game end");
+                StringBuilder result = new StringBuilder("game complete:");
+                for(int i = 0; i + 1 < event.size(); i += 2) {
+                    result.append(' ').append(name(event.getInt(i))).append('=').append(event.get(i + 1));
+                }
+                print(event, result.toString());
+                break;
+        }
+    }
+
+    private void start(GameEvent event) {
+        seed = event.getLong(0);
+        started = event.getTime();
+        roundNum = event.getInt(3);
+        deck = roundScheduler.resume(seed);
+        deck.skip(roundNum, roundNum * Room.NUM_CATEGORIES);
+        dealtRound = -1;
+        letterRound = -1;
+        names.keySet().forEach(id -> scores.put(id, 0));
+        for(int i = 5; i + 2 < event.size(); i += 3) {
+            names.put(event.getInt(i), event.get(i + 1));
+            scores.put(event.getInt(i), event.getInt(i + 2));
+        }
+        print(event, (event.get(2).equals("1") ? "game restored in round " + (roundNum + 1) : "game started")
+            + ", seed " + seed + (event.get(1).equals("1") ? ", hosted" : ""));
+        if(!event.get(4).equals("-")) {
+            categories = deck.nextCategories(Room.NUM_CATEGORIES);
+            dealtCategories = categories;
+            dealtRound = roundNum;
+            letter = event.get(4).charAt(0);
+            checkLetter(event);
+        }
+    }
+
+    private void checkLetter(GameEvent event) {
+        if(deck == null) {
+            return;
+        }
+        if(letterRound != roundNum) {
+            dealtLetter = deck.nextLetter();
+            letterRound = roundNum;
+        }
+        if(dealtLetter != letter) {
+            mismatch(event, "deal mismatch in round " + (roundNum + 1) + ": logged letter " + letter
+                + ", re-dealt " + dealtLetter);
+        }
+    }
+
+    private void scoreRound(GameEvent event) {
+        int round = event.getInt(0);
+        char roundLetter = event.get(1).charAt(0);
+        int numCategories = event.getInt(2);
+        int numPlayers = event.getInt(3);
+        int[] ids = new int[numPlayers];
+        for(int p = 0; p < numPlayers; p++) {
+            ids[p] = event.getInt(4 + p);
+        }
+        String[][] answers = new String[numPlayers][numCategories];
+        boolean[][] logged = new boolean[numCategories][numPlayers];
+        int field = 4 + numPlayers;
+        for(int c = 0; c < numCategories; c++) {
+            for(int p = 0; p < numPlayers; p++, field += 2) {
+                answers[p][c] = event.get(field);
+                logged[c][p] = event.get(field + 1).equals("1");
+            }
+        }
+        List<Player> players = new ArrayList<>(numPlayers);
+        for(int p = 0; p < numPlayers; p++) {
+            String name = names.getOrDefault(ids[p], "#" + ids[p]);
+            Player player = Player.replayed(room, name, round, answers[p]);
+            player.freezeAnswers();
+            players.add(player);
+        }
+        List<String> roundCategories = categories.size() == numCategories ? categories
+            : Collections.nCopies(numCategories, "");
+        ScoreSheet sheet = new ScoreSheet(players, roundCategories, roundLetter);
+        sheet.validate(validator);
+        sheet.markDuplicates(duplicateDetector);
+        int[] gained = new int[numPlayers];
+        for(int c = 0; c < numCategories; c++) {
+            for(int p = 0; p < numPlayers; p++) {
+                if(sheet.getVerdict(c, p) == Verdict.REVIEW) {
+                    sheet.setAccepted(c, p, logged[c][p]);
+                } else if(sheet.isAccepted(c, p) != logged[c][p]) {
+                    mismatch(event, "verdict mismatch in round " + (round + 1) + " for " + name(ids[p]) + " on \""
+                        + answers[p][c] + "\": logged " + (logged[c][p] ? "accepted" : "rejected") + ", replayed "
+                        + sheet.getVerdict(c, p) + (sheet.isDuplicate(c, p) ? " (duplicate)" : ""));
+                }
+                if(sheet.isAccepted(c, p)) {
+                    gained[p]++;
+                }
+            }
+        }
+        StringBuilder summary = new StringBuilder("round " + (round + 1) + " scored:");
+        for(int p = 0; p < numPlayers; p++) {
+            scores.merge(ids[p], gained[p], Integer::sum);
+            summary.append(' ').append(name(ids[p])).append(" +").append(gained[p]);
+        }
+        print(event, summary.toString());
+    }
+
+    private void check(GameEvent event, String when) {
+        for(int i = 0; i + 1 < event.size(); i += 2) {
+            int id = event.getInt(i);
+            int logged = event.getInt(i + 1);
+            int replayed = scores.getOrDefault(id, 0);
+            if(logged != replayed) {
+                mismatch(event, "score mismatch " + when + " for " + name(id) + ": logged " + logged
+                    + ", replayed " + replayed);
+            }
+        }
+    }
+
+    private void mismatch(GameEvent event, String mismatch) {
+        mismatches.add(mismatch);
+        print(event, mismatch);
+    }
+
+    private String name(int id) {
+        return names.getOrDefault(id, "#" + id) + "(" + id + ")";
+    }
+
+    private void print(GameEvent event, String message) {
+        double elapsed = started == 0 ? 0 : (event.getTime() - started) / 1000.0;
+        System.out.printf("[%s] %+8.3fs %s%n", room, elapsed, message);
+    }
+
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if(b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if(read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static String getArg(String[] args, String name) {
+        for(String arg : args) {
+            if(arg.startsWith("--" + name + "=")) {
+                return arg.substring(name.length() + 3);
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        for(String arg : args) {
+            if(!arg.startsWith("--")) {
+                positional.add(arg);
+            }
+        }
+        if(positional.isEmpty()) {
+            System.out.println("Usage: Replay <events.log> [room] [--categories=<file>] [--dictionary=<file>]"
+                + " [--fuzzy-duplicates=true]");
+            return;
+        }
+        String only = positional.size() > 1 ? positional.get(1) : null;
+        String categoriesPath = getArg(args, "categories");
+        CategoryPool pool = categoriesPath == null ? CategoryPool.fromResource("categories.txt")
+            : CategoryPool.fromFile(Paths.get(categoriesPath));
+        RoundScheduler roundScheduler = new RoundScheduler(pool, 0);
+        ValidationPipeline validator = ValidationPipeline.standard();
+        String dictionaryPath = getArg(args, "dictionary");
+        if(dictionaryPath != null) {
+            validator.add(DictionaryValidator.load(Paths.get(dictionaryPath)));
+        }
+        DuplicateDetector duplicateDetector = new DuplicateDetector(
+            Boolean.parseBoolean(getArg(args, "fuzzy-duplicates")));
+        Map<String, Replay> replays = new LinkedHashMap<>();
+        int events = 0;
+        int mismatches = 0;
+        long start = System.nanoTime();
+        CountingInputStream counter = new CountingInputStream(
+            new BufferedInputStream(Files.newInputStream(Paths.get(positional.get(0)))));
+        try(DataInputStream in = new DataInputStream(counter)) {
+            while(true) {
+                long offset = counter.getCount();
+                GameEvent event;
+                try {
+                    event = GameEvent.read(in);
+                } catch(EOFException e) {
+                    if(counter.getCount() > offset) {
+                        System.out.println("Truncated event at byte " + offset);
+                    }
+                    break;
+                } catch(IOException e) {
+                    System.out.println("Stopped at byte " + offset + ": " + e.getMessage());
+                    break;
+                }
+                if(only != null && !only.equalsIgnoreCase(event.getRoom())) {
+                    continue;
+                }
+                events++;
+                Replay replay = replays.computeIfAbsent(event.getRoom(),
+                    room -> new Replay(room, roundScheduler, validator, duplicateDetector));
+                try {
+                    replay.apply(event);
+                } catch(RuntimeException e) {
+                    System.out.println("Skipped malformed event at byte " + offset + " (" + event + "): " + e);
+                }
+                if(event.getType() == GameEvent.Type.COMPLETE) {
+                    mismatches += replays.remove(event.getRoom()).getMismatches().size();
+                }
+            }
+        }
+        for(Replay replay : replays.values()) {
+            mismatches += replay.getMismatches().size();
+        }
+        System.out.printf("Replayed %d events in %.1f ms, %d mismatches%n", events,
+            (System.nanoTime() - start) / 1e6, mismatches);
+    }
+}
@@ -0,0 +1,130 @@
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.CheckBoxTableCell;
+import javafx.scene.input.KeyEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public class ReviewGrid extends TableView<ReviewGrid.Entry> {
+    private final ObservableList<Entry> entries;
+    private ScoreSheet sheet;
+
+    public static class Entry {
+        private final int category;
+        private final int player;
+        private final String categoryName;
+        private final String playerName;
+        private final String answer;
+        private final BooleanProperty accepted;
+
+        private Entry(ScoreSheet sheet, int category, int player) {
+            this.category = category;
+            this.player = player;
+            categoryName = "#" + (category + 1) + " - " + sheet.getCategories().get(category);
+            playerName = sheet.getPlayers().get(player).getName();
+            answer = sheet.getAnswer(category, player);
+            accepted = new SimpleBooleanProperty(sheet.isAccepted(category, player));
+        }
+
+        public BooleanProperty acceptedProperty() {
+            return accepted;
+        }
+    }
+
+    public ReviewGrid() {
+        entries = FXCollections.observableArrayList();
+        setItems(entries);
+        setEditable(true);
+        setColumnResizePolicy(CONSTRAINED_RESIZE_POLICY);
+        setStyle("-fx-font-size: 18px;");
+        getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        TableColumn<Entry, Boolean> acceptColumn = new TableColumn<>("Accept");
+        acceptColumn.setCellValueFactory(features -> features.getValue().acceptedProperty());
+        acceptColumn.setCellFactory(CheckBoxTableCell.forTableColumn(acceptColumn));
+        acceptColumn.setEditable(true);
+        getColumns().add(textColumn("Category", entry -> entry.categoryName));
+        getColumns().add(textColumn("Player", entry -> entry.playerName));
+        getColumns().add(textColumn("Answer", entry -> entry.answer));
+        getColumns().add(acceptColumn);
+        addEventFilter(KeyEvent.KEY_PRESSED, this::keyPressed);
+    }
+
+    private static TableColumn<Entry, String> textColumn(String title, Function<Entry, String> value) {
+        TableColumn<Entry, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(features -> new ReadOnlyStringWrapper(value.apply(features.getValue())));
+        column.setEditable(false);
+        return column;
+    }
+
+    public void show(ScoreSheet sheet) {
+        this.sheet = sheet;
+        List<Entry> pending = new ArrayList<>();
+        for(int c = 0; c < sheet.getCategories().size(); c++) {
+            for(int p = 0; p < sheet.getPlayers().size(); p++) {
+                if(sheet.getVerdict(c, p) == Verdict.REVIEW) {
+                    pending.add(new Entry(sheet, c, p));
+                }
+            }
+        }
+        entries.setAll(pending);
+        getSelectionModel().clearSelection();
+        if(!entries.isEmpty()) {
+            getSelectionModel().select(0);
+            scrollTo(0);
+        }
+    }
+
+    public ScoreSheet commit() {
+        ScoreSheet committed = sheet;
+        for(Entry entry : entries) {
+            committed.setAccepted(entry.category, entry.player, entry.accepted.get());
+        }
+        entries.clear();
+        sheet = null;
+        return committed;
+    }
+
+    private void keyPressed(KeyEvent event) {
+        switch(event.getCode()) {
+            case A:
+                if(event.isShortcutDown()) {
+                    return;
+                }
+                mark(entry -> true, true);
+                break;
+            case R:
+                mark(entry -> false, true);
+                break;
+            case SPACE:
+                mark(entry -> !entry.accepted.get(), false);
+                break;
+            default:
+                return;
+        }
+        event.consume();
+    }
+
+    private void mark(Function<Entry, Boolean> value, boolean advance) {
+        List<Entry> selected = new ArrayList<>(getSelectionModel().getSelectedItems());
+        selected.forEach(entry -> entry.accepted.set(value.apply(entry)));
+        if(advance && selected.size() == 1) {
+            int next = getSelectionModel().getSelectedIndex() + 1;
+            if(next < entries.size()) {
+                getSelectionModel().clearAndSelect(next);
+                scrollTo(next);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+}
@@ -0,0 +1,415 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+public class Room {
+    public enum Phase { LOBBY, CATEGORIES, LETTER, COUNTDOWN, COLLECT, SCORE, COMPLETE }
+
+    public static final int NUM_ROUNDS = 3;
+    public static final int NUM_CATEGORIES = 12;
+    public static final int ROUND_SECONDS = 180;
+    private static final int MIN_PLAYERS = 2;
+    private static final int LOBBY_SECONDS = 30;
+    private static final int LETTER_DELAY_SECONDS = 5;
+    private static final int RESUME_GRACE_SECONDS = 60;
+    private static final long RESTORE_GRACE_MILLIS = 15000;
+    private final String code;
+    private final ScheduledExecutorService scheduler;
+    private final Broadcaster broadcaster;
+    private final RoundScheduler roundScheduler;
+    private final Validator validator;
+    private final DuplicateDetector duplicateDetector;
+    private final Metrics metrics;
+    private final PlayerRegistry players;
+    private final SpectatorRelay spectators;
+    private final List<RoomListener> listeners;
+    private final Map<String, Player> away;
+    private final Map<String, ScheduledFuture<?>> expiries;
+    private volatile Phase phase;
+    private long phaseStarted;
+    private volatile boolean hosted;
+    private ScheduledFuture<?> lobbyTimer;
+    private RoundScheduler.Deck deck;
+    private int roundNum;
+    private List<String> categories;
+    private char letter;
+    private long deadline;
+    private ScoreSheet scoreSheet;
+
+    public Room(String code, ServerContext context) {
+        this.code = code;
+        scheduler = context.getScheduler();
+        broadcaster = context.getBroadcaster();
+        roundScheduler = context.getRoundScheduler();
+        validator = context.getValidator();
+        duplicateDetector = context.getDuplicateDetector();
+        metrics = context.getMetrics();
+        players = new PlayerRegistry();
+        listeners = new CopyOnWriteArrayList<>();
+        players.addListener(new PlayerRegistry.Listener() {
+            @Override
+            public void playerJoined(Player player) {
+                listeners.forEach(listener -> {
+                    listener.playerJoined(Room.this, player);
+                    listener.playersChanged(Room.this);
+                });
+            }
+
+            @Override
+            public void playerLeft(Player player) {
+                listeners.forEach(listener -> {
+                    listener.playerLeft(Room.this, player);
+                    listener.playersChanged(Room.this);
+                });
+            }
+        });
+        spectators = new SpectatorRelay(scheduler, metrics);
+        listeners.add(spectators);
+        away = new ConcurrentHashMap<>();
+        expiries = new ConcurrentHashMap<>();
+        categories = new ArrayList<>();
+        phase = Phase.LOBBY;
+        phaseStarted = System.nanoTime();
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public boolean isHosted() {
+        return hosted;
+    }
+
+    public void setHosted(boolean hosted) {
+        this.hosted = hosted;
+    }
+
+    public void addListener(RoomListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(RoomListener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized boolean addPlayer(Player player) {
+        if(phase != Phase.LOBBY) {
+            return false;
+        }
+        players.add(player);
+        if(!hosted && players.size() >= MIN_PLAYERS) {
+            if(lobbyTimer != null) {
+                lobbyTimer.cancel(false);
+            }
+            lobbyTimer = scheduler.schedule(this::beginGame, LOBBY_SECONDS, TimeUnit.SECONDS);
+        }
+        return true;
+    }
+
+    public synchronized Player resume(String token, Connection connection) {
+        if(phase == Phase.COLLECT || phase == Phase.COMPLETE) {
+            return null;
+        }
+        Player player = away.get(token);
+        if(player == null) {
+            player = players.snapshot().stream().filter(p -> token.equals(p.getSessionToken())).findFirst().orElse(null);
+        }
+        if(player == null) {
+            return null;
+        }
+        player.attach(connection);
+        away.remove(token);
+        ScheduledFuture<?> expiry = expiries.remove(token);
+        if(expiry != null) {
+            expiry.cancel(false);
+        }
+        players.add(player);
+        if(phase != Phase.LOBBY) {
+            List<String> roundCategories = categories;
+            int round = roundNum;
+            char roundLetter = letter;
+            long roundDeadline = deadline;
+            broadcast("resume", Collections.singletonList(player),
+                p -> p.sendResume(round, roundCategories, roundLetter, roundDeadline)).thenAccept(this::drop);
+        }
+        return player;
+    }
+
+    public void watch(Connection connection) {
+        spectators.watch(this, connection);
+    }
+
+    public int getSpectatorCount() {
+        return spectators.size();
+    }
+
+    public synchronized Checkpoint checkpoint() {
+        boolean inRound = phase == Phase.LETTER || phase == Phase.COUNTDOWN || phase == Phase.COLLECT
+            || (phase == Phase.SCORE && scoreSheet != null);
+        if(!inRound || hosted || deck == null) {
+            return null;
+        }
+        List<Checkpoint.PlayerState> states = new ArrayList<>();
+        for(Player player : players.snapshot()) {
+            if(player.getSessionToken() != null) {
+                states.add(Checkpoint.PlayerState.of(player));
+            }
+        }
+        away.values().forEach(player -> states.add(Checkpoint.PlayerState.of(player)));
+        return new Checkpoint(code, deck.getSeed(), roundNum, categories, letter, deadline, states);
+    }
+
+    public synchronized List<Player> restore(Checkpoint checkpoint) {
+        if(phase != Phase.LOBBY || !players.isEmpty()) {
+            return Collections.emptyList();
+        }
+        roundNum = checkpoint.getRoundNum();
+        categories = checkpoint.getCategories();
+        letter = checkpoint.getLetter();
+        deck = roundScheduler.resume(checkpoint.getSeed());
+        deck.skip(letter == 0 ? roundNum : roundNum + 1, (roundNum + 1) * NUM_CATEGORIES);
+        List<Player> restored = new ArrayList<>();
+        for(Checkpoint.PlayerState state : checkpoint.getPlayers()) {
+            Player player = state.restore(code);
+            hold(player);
+            restored.add(player);
+        }
+        listeners.forEach(listener -> listener.gameRestored(this, restored));
+        if(letter == 0) {
+            deadline = 0;
+            setPhase(Phase.LETTER);
+            scheduler.schedule(this::revealLetter, RESTORE_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            long roundDeadline = Math.max(checkpoint.getDeadline(), System.currentTimeMillis() + RESTORE_GRACE_MILLIS);
+            deadline = roundDeadline;
+            setPhase(Phase.COUNTDOWN);
+            listeners.forEach(listener -> listener.countdownStarted(this, roundDeadline));
+            scheduler.schedule(() -> execute(this::roundComplete),
+                roundDeadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+        return restored;
+    }
+
+    public List<Player> getPlayers() {
+        return players.snapshot();
+    }
+
+    public synchronized void beginGame() {
+        if(phase != Phase.LOBBY) {
+            return;
+        }
+        if(lobbyTimer != null) {
+            lobbyTimer.cancel(false);
+        }
+        deck = roundScheduler.deal(code);
+        roundNum = 0;
+        listeners.forEach(listener -> listener.gameStarted(this));
+        setPhase(Phase.CATEGORIES);
+        execute(() -> broadcast("alive", players.snapshot(), Player::checkAlive)
+            .thenAccept(dropped -> execute(() -> {
+                drop(dropped);
+                players.snapshot().forEach(Player::resetScore);
+                startRound();
+            })));
+    }
+
+    private void startRound() {
+        if(players.isEmpty()) {
+            complete();
+            return;
+        }
+        List<String> roundCategories = deck.nextCategories(NUM_CATEGORIES);
+        int round;
+        synchronized(this) {
+            categories = roundCategories;
+            letter = 0;
+            deadline = 0;
+            round = roundNum;
+            setPhase(Phase.CATEGORIES);
+        }
+        broadcast("categories", players.snapshot(), player -> player.sendCategories(round, roundCategories))
+            .thenAccept(this::drop);
+        setPhase(Phase.LETTER);
+        if(!hosted) {
+            scheduler.schedule(this::revealLetter, LETTER_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    public synchronized void revealLetter() {
+        if(phase != Phase.LETTER) {
+            return;
+        }
+        setPhase(Phase.COUNTDOWN);
+        execute(() -> {
+            char roundLetter = deck.nextLetter();
+            long roundDeadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ROUND_SECONDS);
+            synchronized(this) {
+                letter = roundLetter;
+                deadline = roundDeadline;
+            }
+            broadcast("letter", players.snapshot(), player -> player.sendLetter(roundLetter, roundDeadline))
+                .thenAccept(this::drop);
+            listeners.forEach(listener -> listener.countdownStarted(this, roundDeadline));
+            scheduler.schedule(() -> execute(this::roundComplete),
+                roundDeadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void roundComplete() {
+        setPhase(Phase.COLLECT);
+        long collectStart = System.nanoTime();
+        List<Player> scored = new ArrayList<>(players.snapshot());
+        List<Player> streaming = new ArrayList<>();
+        List<Player> requested = new ArrayList<>();
+        for(Player player : scored) {
+            (player.isStreaming() ? streaming : requested).add(player);
+        }
+        long collectDeadline = System.currentTimeMillis() + broadcaster.getTimeoutMillis();
+        CompletableFuture<List<Player>> commits = broadcast("commit", streaming, Player::commitAnswers);
+        CompletableFuture<List<Player>> answers = broadcaster.broadcastBlocking(requested,
+            player -> player.requestAnswers(collectDeadline));
+        commits.thenAcceptBoth(answers, (uncommitted, unanswered) -> execute(() -> {
+            metrics.increment(Metrics.labelled("drops_total", "step", "answers"), unanswered.size());
+            metrics.observe("collection_seconds", System.nanoTime() - collectStart);
+            streaming.forEach(Player::freezeAnswers);
+            scored.removeAll(unanswered);
+            drop(unanswered);
+            drop(uncommitted);
+            score(scored);
+        }));
+    }
+
+    private void score(List<Player> scored) {
+        ScoreSheet sheet = new ScoreSheet(scored, categories, letter);
+        sheet.validate(validator);
+        sheet.markDuplicates(duplicateDetector);
+        synchronized(this) {
+            scoreSheet = sheet;
+            setPhase(Phase.SCORE);
+        }
+        if(hosted) {
+            listeners.forEach(listener -> listener.scoring(this, sheet));
+        } else {
+            sheet.acceptUnreviewed();
+            submitScores(sheet);
+        }
+    }
+
+    public synchronized void submitScores(ScoreSheet sheet) {
+        if(phase != Phase.SCORE || sheet != scoreSheet) {
+            return;
+        }
+        scoreSheet = null;
+        sheet.apply();
+        listeners.forEach(listener -> listener.roundScored(this, sheet));
+        if(roundNum >= NUM_ROUNDS - 1 || players.isEmpty()) {
+            complete();
+        } else {
+            roundNum++;
+            execute(this::startRound);
+        }
+    }
+
+    private void complete() {
+        setPhase(Phase.COMPLETE);
+        listeners.forEach(listener -> listener.gameComplete(this));
+    }
+
+    private CompletableFuture<List<Player>> broadcast(String step, List<Player> targets,
+                                                      Function<Player, CompletableFuture<Boolean>> action) {
+        long start = System.nanoTime();
+        return broadcaster.broadcastAsync(targets, action).whenComplete((dropped, e) -> {
+            metrics.observe(Metrics.labelled("broadcast_seconds", "step", step), System.nanoTime() - start);
+            if(dropped != null) {
+                metrics.increment(Metrics.labelled("drops_total", "step", step), dropped.size());
+            }
+        });
+    }
+
+    private void drop(List<Player> dropped) {
+        players.removeAll(dropped);
+        for(Player player : dropped) {
+            if(player.getSessionToken() != null) {
+                hold(player);
+            }
+        }
+    }
+
+    private synchronized void hold(Player player) {
+        String token = player.getSessionToken();
+        if(phase == Phase.COMPLETE) {
+            return;
+        }
+        away.put(token, player);
+        ScheduledFuture<?> previous = expiries.put(token,
+            scheduler.schedule(() -> expire(player), RESUME_GRACE_SECONDS, TimeUnit.SECONDS));
+        if(previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    private synchronized void expire(Player player) {
+        String token = player.getSessionToken();
+        if(away.remove(token, player)) {
+            expiries.remove(token);
+            listeners.forEach(listener -> listener.sessionExpired(this, player));
+        }
+    }
+
+    private void setPhase(Phase phase) {
+        if(this.phase == phase) {
+            return;
+        }
+        long now = System.nanoTime();
+        metrics.observe(Metrics.labelled("phase_seconds", "phase", this.phase.name()), now - phaseStarted);
+        phaseStarted = now;
+        this.phase = phase;
+        listeners.forEach(listener -> listener.phaseChanged(this, phase));
+    }
+
+    private void execute(Step step) {
+        scheduler.execute(() -> {
+            try {
+                step.run();
+            } catch(Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public char getLetter() {
+        return letter;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public long getSeed() {
+        return deck == null ? 0 : deck.getSeed();
+    }
+
+    public int getRoundNum() {
+        return roundNum;
+    }
+}
@@ -0,0 +1,25 @@
+import java.util.List;
+
+public interface RoomListener {
+    default void playersChanged(Room room) {}
+
+    default void playerJoined(Room room, Player player) {}
+
+    default void playerLeft(Room room, Player player) {}
+
+    default void sessionExpired(Room room, Player player) {}
+
+    default void gameStarted(Room room) {}
+
+    default void gameRestored(Room room, List<Player> restored) {}
+
+    default void phaseChanged(Room room, Room.Phase phase) {}
+
+    default void countdownStarted(Room room, long deadline) {}
+
+    default void scoring(Room room, ScoreSheet sheet) {}
+
+    default void roundScored(Room room, ScoreSheet sheet) {}
+
+    default void gameComplete(Room room) {}
+}
@@ -0,0 +1,120 @@
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class RoomRegistry {
+    public static final String DEFAULT_ROOM = "DEFAULT";
+    private final ServerContext context;
+    private final ConcurrentMap<String, Room> rooms;
+    private final ConcurrentMap<String, Room> sessions;
+    private final List<RoomListener> listeners;
+    private final RoomListener sessionReaper;
+
+    public RoomRegistry(ServerContext context) {
+        this.context = context;
+        rooms = new ConcurrentHashMap<>();
+        sessions = new ConcurrentHashMap<>();
+        listeners = new CopyOnWriteArrayList<>();
+        sessionReaper = new RoomListener() {
+            @Override
+            public void sessionExpired(Room room, Player player) {
+                sessions.remove(player.getSessionToken(), room);
+            }
+        };
+        context.getMetrics().gauge("rooms_active", rooms::size);
+        context.getMetrics().gauge("players_active", () -> rooms.values().stream()
+            .mapToLong(room -> room.getPlayers().size()).sum());
+        context.getMetrics().gauge("sessions_held", sessions::size);
+        context.getMetrics().gauge("spectators_active", () -> rooms.values().stream()
+            .mapToLong(Room::getSpectatorCount).sum());
+    }
+
+    public void addListener(RoomListener listener) {
+        listeners.add(listener);
+    }
+
+    public Room get(String code) {
+        return rooms.get(normalise(code));
+    }
+
+    public Room getOrCreate(String code) {
+        return rooms.computeIfAbsent(normalise(code), key -> {
+            Room room = new Room(key, context);
+            room.addListener(context.getHistory());
+            room.addListener(context.getEvents());
+            room.addListener(sessionReaper);
+            listeners.forEach(room::addListener);
+            return room;
+        });
+    }
+
+    public void remove(Room room) {
+        rooms.remove(room.getCode(), room);
+        sessions.values().removeIf(room::equals);
+    }
+
+    public Room restore(Checkpoint checkpoint) {
+        Room room = getOrCreate(checkpoint.getRoom());
+        for(Player player : room.restore(checkpoint)) {
+            sessions.put(player.getSessionToken(), room);
+        }
+        return room;
+    }
+
+    public Collection<Room> getRooms() {
+        return rooms.values();
+    }
+
+    public Room join(Connection connection, String line) {
+        context.getMetrics().observe("handshake_seconds", System.nanoTime() - connection.getCreatedNanos());
+        Handshake handshake = Handshake.parse(line);
+        if(handshake == null) {
+            connection.close();
+            return null;
+        }
+        if(handshake.isResume()) {
+            return resume(connection, handshake.getToken());
+        }
+        if(handshake.isSpectator()) {
+            Room room = get(handshake.getRoom());
+            if(room == null) {
+                connection.close();
+                return null;
+            }
+            room.watch(connection);
+            return room;
+        }
+        Player player = new Player(connection, handshake);
+        if(handshake.isHello()) {
+            connection.send(player.getReply());
+        }
+        Room room = getOrCreate(handshake.getRoom());
+        if(!room.addPlayer(player)) {
+            connection.close();
+            return null;
+        }
+        if(player.getSessionToken() != null) {
+            sessions.put(player.getSessionToken(), room);
+        }
+        context.getHeartbeat().watch(player);
+        return room;
+    }
+
+    private Room resume(Connection connection, String token) {
+        Room room = sessions.get(token);
+        Player player = room == null ? null : room.resume(token, connection);
+        if(player == null) {
+            connection.close();
+            return null;
+        }
+        context.getHeartbeat().watch(player);
+        return room;
+    }
+
+    private static String normalise(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+}
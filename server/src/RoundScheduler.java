@@ -0,0 +1,111 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RoundScheduler {
+    private static final double[] LETTER_WEIGHTS = {
+        5, 5, 5, 4, 3, 4, 4, 4, 2, 2, 2, 4, 5,
+        3, 2, 5, 0.5, 4, 6, 5, 1, 1, 3, 0.2, 0.5, 0.3
+    };
+    private final CategoryPool categoryPool;
+    private final long seed;
+    private final AtomicLong deals;
+
+    public class Deck {
+        private final long seed;
+        private final Random random;
+        private final char[] letters;
+        private final List<String> categories;
+        private final int[] order;
+        private int nextLetter;
+        private int nextCategory;
+
+        private Deck(long seed) {
+            this.seed = seed;
+            random = new Random(seed);
+            letters = new char[LETTER_WEIGHTS.length];
+            categories = categoryPool.getCategories();
+            order = new int[categories.size()];
+            for(int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            shuffleLetters();
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public synchronized void skip(int letterCount, int categoryCount) {
+            for(int i = 0; i < letterCount; i++) {
+                nextLetter();
+            }
+            for(int i = 0; i < categoryCount; i++) {
+                nextCategories(1);
+            }
+        }
+
+        public synchronized char nextLetter() {
+            if(nextLetter == letters.length) {
+                shuffleLetters();
+            }
+            return letters[nextLetter++];
+        }
+
+        public synchronized List<String> nextCategories(int count) {
+            List<String> drawn = new ArrayList<>(count);
+            for(int i = 0; i < count && i < order.length; i++) {
+                if(nextCategory == order.length) {
+                    nextCategory = 0;
+                }
+                int j = nextCategory + random.nextInt(order.length - nextCategory);
+                int chosen = order[j];
+                order[j] = order[nextCategory];
+                order[nextCategory++] = chosen;
+                drawn.add(categories.get(chosen));
+            }
+            return drawn;
+        }
+
+        private void shuffleLetters() {
+            double[] keys = new double[LETTER_WEIGHTS.length];
+            Integer[] indices = new Integer[LETTER_WEIGHTS.length];
+            for(int i = 0; i < keys.length; i++) {
+                keys[i] = Math.pow(random.nextDouble(), 1 / LETTER_WEIGHTS[i]);
+                indices[i] = i;
+            }
+            Arrays.sort(indices, Comparator.comparingDouble((Integer i) -> keys[i]).reversed());
+            for(int i = 0; i < indices.length; i++) {
+                letters[i] = (char)('A' + indices[i]);
+            }
+            nextLetter = 0;
+        }
+    }
+
+    public RoundScheduler(CategoryPool categoryPool, long seed) {
+        this.categoryPool = categoryPool;
+        this.seed = seed;
+        deals = new AtomicLong();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Deck deal(String roomCode) {
+        return new Deck(mix(mix(seed * 31 + roomCode.hashCode()) + deals.incrementAndGet()));
+    }
+
+    public Deck resume(long deckSeed) {
+        return new Deck(deckSeed);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
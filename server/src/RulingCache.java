@@ -0,0 +1,65 @@
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RulingCache implements Validator, GameHistory.RulingListener {
+    public static final int DEFAULT_CAPACITY = 10000;
+    private final Map<String, Boolean> rulings;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    public RulingCache(int capacity) {
+        rulings = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    @Override
+    public Verdict validate(String category, char letter, String answer) {
+        Boolean accepted;
+        synchronized(rulings) {
+            accepted = rulings.get(key(category, answer));
+        }
+        if(accepted == null) {
+            misses.increment();
+            return Verdict.REVIEW;
+        }
+        hits.increment();
+        return accepted ? Verdict.ACCEPT : Verdict.REJECT;
+    }
+
+    @Override
+    public void ruled(String category, String answer, boolean accepted) {
+        String normalised = AnswerNormaliser.normalise(answer);
+        if(normalised.isEmpty()) {
+            return;
+        }
+        synchronized(rulings) {
+            rulings.put(key(category, normalised), accepted);
+        }
+    }
+
+    public int size() {
+        synchronized(rulings) {
+            return rulings.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static String key(String category, String answer) {
+        return category.toLowerCase(Locale.ROOT) + "\t" + answer;
+    }
+}
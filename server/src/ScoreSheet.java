@@ -0,0 +1,108 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ScoreSheet {
+    private final List<Player> players;
+    private final List<String> categories;
+    private final char letter;
+    private final Verdict[][] verdicts;
+    private final boolean[][] accepted;
+    private final boolean[][] duplicates;
+
+    public ScoreSheet(List<Player> players, List<String> categories, char letter) {
+        this.players = Collections.unmodifiableList(new ArrayList<>(players));
+        this.categories = Collections.unmodifiableList(new ArrayList<>(categories));
+        this.letter = letter;
+        verdicts = new Verdict[this.categories.size()][this.players.size()];
+        accepted = new boolean[this.categories.size()][this.players.size()];
+        duplicates = new boolean[this.categories.size()][this.players.size()];
+    }
+
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public char getLetter() {
+        return letter;
+    }
+
+    public String getAnswer(int category, int player) {
+        return players.get(player).getAnswer(category);
+    }
+
+    public void validate(Validator validator) {
+        for(int c = 0; c < categories.size(); c++) {
+            for(int p = 0; p < players.size(); p++) {
+                verdicts[c][p] = validator.validate(categories.get(c), letter, getAnswer(c, p));
+                accepted[c][p] = verdicts[c][p] == Verdict.ACCEPT;
+            }
+        }
+    }
+
+    public void markDuplicates(DuplicateDetector detector) {
+        for(int c = 0; c < categories.size(); c++) {
+            List<String> answers = new ArrayList<>(players.size());
+            for(int p = 0; p < players.size(); p++) {
+                answers.add(verdicts[c][p] == Verdict.REJECT ? null : AnswerNormaliser.normalise(getAnswer(c, p)));
+            }
+            boolean[] found = detector.findDuplicates(answers);
+            for(int p = 0; p < players.size(); p++) {
+                if(found[p]) {
+                    duplicates[c][p] = true;
+                    verdicts[c][p] = Verdict.REJECT;
+                    accepted[c][p] = false;
+                }
+            }
+        }
+    }
+
+    public boolean isDuplicate(int category, int player) {
+        return duplicates[category][player];
+    }
+
+    public Verdict getVerdict(int category, int player) {
+        return verdicts[category][player];
+    }
+
+    public boolean needsReview(int category) {
+        for(int p = 0; p < players.size(); p++) {
+            if(verdicts[category][p] == Verdict.REVIEW) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isAccepted(int category, int player) {
+        return accepted[category][player];
+    }
+
+    public void setAccepted(int category, int player, boolean value) {
+        accepted[category][player] = value;
+    }
+
+    public void acceptUnreviewed() {
+        for(int c = 0; c < categories.size(); c++) {
+            for(int p = 0; p < players.size(); p++) {
+                if(verdicts[c][p] == Verdict.REVIEW) {
+                    accepted[c][p] = true;
+                }
+            }
+        }
+    }
+
+    void apply() {
+        for(int c = 0; c < categories.size(); c++) {
+            for(int p = 0; p < players.size(); p++) {
+                if(accepted[c][p]) {
+                    players.get(p).incrementScore();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class ServerContext {
+    public static final int DEFAULT_PORT = 4444;
+    private static final long BROADCAST_TIMEOUT_MILLIS = 10000;
+    private static final int SCHEDULER_THREADS = 8;
+    private static final String DEFAULT_HISTORY = "history.log";
+    private static final String DEFAULT_EVENTS = "events.log";
+    private final ScheduledExecutorService scheduler;
+    private final Broadcaster broadcaster;
+    private final RoundScheduler roundScheduler;
+    private final Validator validator;
+    private final DuplicateDetector duplicateDetector;
+    private final Heartbeat heartbeat;
+    private final Metrics metrics;
+    private final GameHistory history;
+    private final EventLog events;
+
+    public ServerContext(ScheduledExecutorService scheduler, Broadcaster broadcaster, RoundScheduler roundScheduler,
+                         Validator validator, DuplicateDetector duplicateDetector, Heartbeat heartbeat,
+                         Metrics metrics, GameHistory history, EventLog events) {
+        this.scheduler = scheduler;
+        this.broadcaster = broadcaster;
+        this.roundScheduler = roundScheduler;
+        this.validator = validator;
+        this.duplicateDetector = duplicateDetector;
+        this.heartbeat = heartbeat;
+        this.metrics = metrics;
+        this.history = history;
+        this.events = events;
+    }
+
+    public static ServerContext create(Map<String, String> options) throws IOException {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(SCHEDULER_THREADS);
+        Metrics metrics = new Metrics();
+        RulingCache rulings = getRulingCache(options);
+        ServerContext context = new ServerContext(
+            scheduler,
+            new Broadcaster(BROADCAST_TIMEOUT_MILLIS, metrics),
+            new RoundScheduler(getCategoryPool(options, scheduler), getSeed(options)),
+            getValidator(options, rulings),
+            new DuplicateDetector(Boolean.parseBoolean(options.get("fuzzy-duplicates"))),
+            getHeartbeat(options),
+            metrics,
+            GameHistory.open(Paths.get(options.getOrDefault("history", DEFAULT_HISTORY)), rulings),
+            EventLog.open(Paths.get(options.getOrDefault("events", DEFAULT_EVENTS))));
+        context.getHeartbeat().start();
+        metrics.counter("ruling_cache_hits_total", rulings::getHits);
+        metrics.counter("ruling_cache_misses_total", rulings::getMisses);
+        metrics.registerMBean();
+        String metricsPort = options.get("metrics-port");
+        if(metricsPort != null) {
+            metrics.serve(Integer.parseInt(metricsPort));
+        }
+        return context;
+    }
+
+    public static int getPort(Map<String, String> options) {
+        String port = options.get("port");
+        return port == null ? DEFAULT_PORT : Integer.parseInt(port);
+    }
+
+    public static OutboundPolicy getOutboundPolicy(Map<String, String> options) {
+        return OutboundPolicy.parse(options.get("outbound-policy"), options.get("outbound-limit"),
+            options.get("outbound-block-millis"));
+    }
+
+    private static long getSeed(Map<String, String> options) {
+        String seed = options.get("seed");
+        long value = seed == null ? new Random().nextLong() : Long.parseLong(seed);
+        System.out.println("Round seed: " + value);
+        return value;
+    }
+
+    private static CategoryPool getCategoryPool(Map<String, String> options, ScheduledExecutorService scheduler)
+            throws IOException {
+        String path = options.get("categories");
+        if(path == null) {
+            return CategoryPool.fromResource("categories.txt");
+        }
+        CategoryPool pool = CategoryPool.fromFile(Paths.get(path));
+        pool.watch(scheduler);
+        return pool;
+    }
+
+    private static RulingCache getRulingCache(Map<String, String> options) {
+        String capacity = options.get("ruling-cache");
+        return new RulingCache(capacity == null ? RulingCache.DEFAULT_CAPACITY : Integer.parseInt(capacity));
+    }
+
+    private static Validator getValidator(Map<String, String> options, RulingCache rulings) throws IOException {
+        ValidationPipeline pipeline = ValidationPipeline.standard();
+        String path = options.get("dictionary");
+        if(path != null) {
+            pipeline.add(DictionaryValidator.load(Paths.get(path)));
+        }
+        return pipeline.add(rulings);
+    }
+
+    private static Heartbeat getHeartbeat(Map<String, String> options) {
+        String interval = options.get("heartbeat-millis");
+        String missed = options.get("heartbeat-misses");
+        return new Heartbeat(
+            interval == null ? Heartbeat.DEFAULT_INTERVAL_MILLIS : Long.parseLong(interval),
+            missed == null ? Heartbeat.DEFAULT_MAX_MISSED : Integer.parseInt(missed));
+    }
+
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    public Broadcaster getBroadcaster() {
+        return broadcaster;
+    }
+
+    public RoundScheduler getRoundScheduler() {
+        return roundScheduler;
+    }
+
+    public Validator getValidator() {
+        return validator;
+    }
+
+    public DuplicateDetector getDuplicateDetector() {
+        return duplicateDetector;
+    }
+
+    public Heartbeat getHeartbeat() {
+        return heartbeat;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public GameHistory getHistory() {
+        return history;
+    }
+
+    public EventLog getEvents() {
+        return events;
+    }
+
+    public void shutdown() {
+        events.close();
+        history.close();
+        metrics.shutdown();
+        heartbeat.stop();
+        broadcaster.shutdown();
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,162 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SpectatorRelay implements RoomListener {
+    private static final int MAX_QUEUED_UPDATES = 64;
+    private static final int CLOSE_DELAY_SECONDS = 5;
+    private final ScheduledExecutorService scheduler;
+    private final Metrics metrics;
+    private final List<Connection> spectators;
+    private final Queue<Runnable> tasks;
+    private final AtomicBoolean draining;
+
+    public SpectatorRelay(ScheduledExecutorService scheduler, Metrics metrics) {
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        spectators = new CopyOnWriteArrayList<>();
+        tasks = new ConcurrentLinkedQueue<>();
+        draining = new AtomicBoolean();
+    }
+
+    public void watch(Room room, Connection connection) {
+        connection.setLineHandler(line -> true);
+        connection.setCloseHandler(() -> spectators.remove(connection));
+        submit(() -> {
+            if(connection.isClosed()) {
+                return;
+            }
+            connection.send(snapshot(room));
+            spectators.add(connection);
+        });
+    }
+
+    public int size() {
+        return spectators.size();
+    }
+
+    @Override
+    public void playersChanged(Room room) {
+        List<String> lines = new ArrayList<>();
+        lines.add("players");
+        List<Player> players = room.getPlayers();
+        lines.add(String.valueOf(players.size()));
+        players.forEach(player -> lines.add(player.getName()));
+        publish(lines);
+    }
+
+    @Override
+    public void phaseChanged(Room room, Room.Phase phase) {
+        List<String> lines = new ArrayList<>();
+        lines.add("phase " + phase);
+        if(phase == Room.Phase.LETTER) {
+            addCategories(lines, room);
+        }
+        publish(lines);
+    }
+
+    @Override
+    public void countdownStarted(Room room, long deadline) {
+        List<String> lines = new ArrayList<>();
+        addLetter(lines, room.getLetter(), deadline);
+        publish(lines);
+    }
+
+    @Override
+    public void roundScored(Room room, ScoreSheet sheet) {
+        List<String> lines = new ArrayList<>();
+        lines.add("results");
+        lines.add(String.valueOf(sheet.getCategories().size() * sheet.getPlayers().size()));
+        for(int c = 0; c < sheet.getCategories().size(); c++) {
+            for(int p = 0; p < sheet.getPlayers().size(); p++) {
+                lines.add(String.join("\t", sheet.getCategories().get(c), sheet.getPlayers().get(p).getName(),
+                    sheet.getAnswer(c, p).replace('\t', ' '), sheet.isAccepted(c, p) ? "+" : "-"));
+            }
+        }
+        publish(lines);
+    }
+
+    @Override
+    public void gameComplete(Room room) {
+        List<String> lines = new ArrayList<>();
+        lines.add("scores");
+        List<Player> players = room.getPlayers();
+        lines.add(String.valueOf(players.size()));
+        players.forEach(player -> lines.add(player.getName() + "\t" + player.getScore()));
+        lines.add("end");
+        publish(lines);
+        scheduler.schedule(() -> submit(() -> spectators.forEach(Connection::close)),
+            CLOSE_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private ByteBuffer snapshot(Room room) {
+        List<String> lines = new ArrayList<>();
+        lines.add("watching " + room.getCode());
+        lines.add("phase " + room.getPhase());
+        if(room.getPhase() != Room.Phase.LOBBY && !room.getCategories().isEmpty()) {
+            addCategories(lines, room);
+            if(room.getLetter() != 0) {
+                addLetter(lines, room.getLetter(), room.getDeadline());
+            }
+        }
+        return TextProtocol.encode(lines.toArray(new String[0]));
+    }
+
+    private static void addCategories(List<String> lines, Room room) {
+        List<String> categories = room.getCategories();
+        lines.add("round " + (room.getRoundNum() + 1) + " " + Room.NUM_ROUNDS);
+        lines.add("categories");
+        lines.add(String.valueOf(categories.size()));
+        lines.addAll(categories);
+    }
+
+    private static void addLetter(List<String> lines, char letter, long deadline) {
+        lines.add("letter");
+        lines.add(String.valueOf(letter));
+        lines.add("deadline " + deadline);
+    }
+
+    private void publish(List<String> lines) {
+        if(spectators.isEmpty()) {
+            return;
+        }
+        ByteBuffer update = TextProtocol.encode(lines.toArray(new String[0]));
+        submit(() -> {
+            for(Connection spectator : spectators) {
+                if(spectator.getQueuedWrites() >= MAX_QUEUED_UPDATES) {
+                    metrics.increment("spectators_dropped_total", 1);
+                    spectator.close();
+                } else {
+                    spectator.send(update.duplicate());
+                }
+            }
+        });
+    }
+
+    private void submit(Runnable task) {
+        tasks.add(task);
+        if(draining.compareAndSet(false, true)) {
+            scheduler.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            Runnable task;
+            while((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch(Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            draining.set(false);
+        } while(!tasks.isEmpty() && draining.compareAndSet(false, true));
+    }
+}
@@ -0,0 +1,69 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class TextProtocol implements Protocol {
+    @Override
+    public ByteBuffer query(int seq, String query) {
+        return encode(ackRequest(seq, query));
+    }
+
+    @Override
+    public ByteBuffer categories(int seq, int roundNum, int numRounds, int roundSeconds, List<String> categories) {
+        String[] lines = new String[categories.size() + 3];
+        lines[0] = "categories";
+        lines[1] = String.valueOf(categories.size());
+        for(int i = 0; i < categories.size(); i++) {
+            lines[i + 2] = categories.get(i);
+        }
+        lines[lines.length - 1] = ackRequest(seq, "received");
+        return encode(lines);
+    }
+
+    @Override
+    public ByteBuffer letter(int seq, char letter, long deadline) {
+        if(deadline > 0) {
+            return encode("letter", String.valueOf(letter), "deadline " + deadline, ackRequest(seq, "received"));
+        }
+        return encode("letter", String.valueOf(letter), ackRequest(seq, "received"));
+    }
+
+    @Override
+    public ByteBuffer resume(int seq, int roundNum, int numRounds, List<String> categories, char letter, long deadline,
+                             List<String> drafts) {
+        String[] lines = new String[categories.size()*2 + 6];
+        lines[0] = "resume";
+        lines[1] = roundNum + " " + numRounds;
+        lines[2] = letter == 0 ? "-" : String.valueOf(letter);
+        lines[3] = String.valueOf(deadline);
+        lines[4] = String.valueOf(categories.size());
+        for(int i = 0; i < categories.size(); i++) {
+            lines[i + 5] = categories.get(i);
+            lines[i + 5 + categories.size()] = drafts.get(i);
+        }
+        lines[lines.length - 1] = ackRequest(seq, "received");
+        return encode(lines);
+    }
+
+    @Override
+    public ByteBuffer pong(long clientTime, long serverTime) {
+        return encode("pong " + clientTime + " " + serverTime);
+    }
+
+    @Override
+    public ByteBuffer answers() {
+        return encode("answers");
+    }
+
+    private static String ackRequest(int seq, String query) {
+        return seq == 0 ? query + "?" : query + "? " + seq;
+    }
+
+    public static ByteBuffer encode(String... lines) {
+        StringBuilder message = new StringBuilder();
+        for(String line : lines) {
+            message.append(line).append('\n');
+        }
+        return ByteBuffer.wrap(message.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
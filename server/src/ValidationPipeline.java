@@ -0,0 +1,33 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ValidationPipeline implements Validator {
+    private final List<Validator> validators;
+
+    public ValidationPipeline() {
+        validators = new CopyOnWriteArrayList<>();
+    }
+
+    public static ValidationPipeline standard() {
+        ValidationPipeline pipeline = new ValidationPipeline();
+        pipeline.add(new LetterValidator());
+        return pipeline;
+    }
+
+    public ValidationPipeline add(Validator validator) {
+        validators.add(validator);
+        return this;
+    }
+
+    @Override
+    public Verdict validate(String category, char letter, String answer) {
+        String normalised = AnswerNormaliser.normalise(answer);
+        for(Validator validator : validators) {
+            Verdict verdict = validator.validate(category, letter, normalised);
+            if(verdict != Verdict.REVIEW) {
+                return verdict;
+            }
+        }
+        return Verdict.REVIEW;
+    }
+}
@@ -0,0 +1,3 @@
+public interface Validator {
+    Verdict validate(String category, char letter, String answer);
+}
@@ -0,0 +1 @@
+public enum Verdict { ACCEPT, REJECT, REVIEW }